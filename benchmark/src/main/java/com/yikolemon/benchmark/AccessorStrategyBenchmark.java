@@ -0,0 +1,49 @@
+package com.yikolemon.benchmark;
+
+import com.yikolemon.benchmark.app.BenchmarkConfig;
+import com.yikolemon.benchmark.app.service.RequestState;
+import com.yikolemon.ioc.context.AnnotationConfigApplicationContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 反射与MethodHandle两种访问方式下的prototype创建和完整启动
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessorStrategyBenchmark {
+
+    @Param({"reflection", "method-handle"})
+    public String accessor;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Setup
+    public void setup() throws Exception {
+        System.setProperty(AnnotationConfigApplicationContext.ACCESSOR_PROPERTY, accessor);
+        context = new AnnotationConfigApplicationContext(BenchmarkConfig.class, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.clearProperty(AnnotationConfigApplicationContext.ACCESSOR_PROPERTY);
+    }
+
+    @Benchmark
+    public RequestState createPrototype() {
+        return context.getBean(RequestState.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public AnnotationConfigApplicationContext startup() throws Exception {
+        return new AnnotationConfigApplicationContext(BenchmarkConfig.class, null);
+    }
+}
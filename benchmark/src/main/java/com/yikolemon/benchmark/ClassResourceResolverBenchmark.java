@@ -0,0 +1,48 @@
+package com.yikolemon.benchmark;
+
+import com.yikolemon.ioc.resource.ClassResourceResolver;
+import com.yikolemon.ioc.resource.ResourceFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目录和jar两种classpath下的资源扫描, Scope.Thread保证setup设置的上下文类加载器对测量线程生效
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassResourceResolverBenchmark {
+
+    @Param({"directory", "jar"})
+    String layout;
+
+    private ClassLoader classLoader;
+
+    private ClassLoader originalClassLoader;
+
+    @Setup
+    public void setup() throws Exception {
+        ScanFixtures fixtures = ScanFixtures.create();
+        classLoader = "jar".equals(layout) ? fixtures.jarClassLoader() : fixtures.directoryClassLoader();
+        originalClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(classLoader);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Thread.currentThread().setContextClassLoader(originalClassLoader);
+    }
+
+    @Benchmark
+    public List<String> scan() {
+        return new ClassResourceResolver(ScanFixtures.SCAN_PACKAGE)
+                .scan(ResourceFilter.extension(".class"), resource -> resource.getName());
+    }
+}
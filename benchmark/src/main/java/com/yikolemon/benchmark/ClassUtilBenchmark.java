@@ -0,0 +1,45 @@
+package com.yikolemon.benchmark;
+
+import com.yikolemon.benchmark.app.BenchmarkConfig;
+import com.yikolemon.benchmark.app.service.Dispatcher;
+import com.yikolemon.ioc.annotation.Component;
+import com.yikolemon.ioc.annotation.Configuration;
+import com.yikolemon.ioc.util.ClassUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 注解和元注解解析
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassUtilBenchmark {
+
+    @Benchmark
+    public Component metaAnnotation() {
+        //@Configuration上的@Component
+        return ClassUtil.getAnnotation(BenchmarkConfig.class, Component.class);
+    }
+
+    @Benchmark
+    public Component directAnnotation() {
+        return ClassUtil.getAnnotation(Dispatcher.class, Component.class);
+    }
+
+    @Benchmark
+    public Configuration missingAnnotation() {
+        return ClassUtil.getAnnotation(Dispatcher.class, Configuration.class);
+    }
+
+    @Benchmark
+    public String beanName() {
+        return ClassUtil.getBeanName(BenchmarkConfig.class);
+    }
+}
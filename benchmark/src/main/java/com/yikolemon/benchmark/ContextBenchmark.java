@@ -0,0 +1,76 @@
+package com.yikolemon.benchmark;
+
+import com.yikolemon.benchmark.app.BenchmarkConfig;
+import com.yikolemon.ioc.context.AnnotationConfigApplicationContext;
+import com.yikolemon.ioc.context.BeanDefinition;
+import com.yikolemon.ioc.context.ResourceScanner;
+import com.yikolemon.benchmark.app.service.Handler;
+import com.yikolemon.benchmark.app.service.RequestState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定义创建、完整启动、按类型查找Bean、并发getBean以及prototype创建
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextBenchmark {
+
+    private Set<String> classNames;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Setup
+    public void setup() throws Exception {
+        classNames = new ResourceScanner().scanForClazzName(BenchmarkConfig.class);
+        context = new AnnotationConfigApplicationContext(BenchmarkConfig.class, null);
+    }
+
+    @Benchmark
+    public Map<String, BeanDefinition> createBeanDefinitions() throws Exception {
+        return new ResourceScanner().createBeanDefinitions(classNames);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public AnnotationConfigApplicationContext startup() throws Exception {
+        return new AnnotationConfigApplicationContext(BenchmarkConfig.class, null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public BeanDefinition findPrimaryBeanDefinition() {
+        return context.findPrimaryBeanDefinition(Handler.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public BeanDefinition findBeanDefinitionByName() {
+        return context.findBeanDefinition("dispatcher", Object.class);
+    }
+
+    /**
+     * 模拟请求线程并发按类型获取Bean
+     */
+    @Benchmark
+    @Threads(8)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Handler getBeanByTypeConcurrently() {
+        return context.getBean(Handler.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public RequestState getPrototypeBean() {
+        return context.getBean(RequestState.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.yikolemon.benchmark;
+
+import com.yikolemon.ioc.properties.PropertyResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置读取与类型转换
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyResolverBenchmark {
+
+    private final PropertyResolver propertyResolver = new PropertyResolver();
+
+    @Benchmark
+    public String getString() throws Exception {
+        return propertyResolver.getProperty("${bench.zone}", String.class);
+    }
+
+    @Benchmark
+    public Integer getInt() throws Exception {
+        return propertyResolver.getProperty("${bench.port}", int.class);
+    }
+
+    @Benchmark
+    public Integer getIntWithDefault() throws Exception {
+        return propertyResolver.getProperty("${bench.port:9090}", Integer.class);
+    }
+
+    @Benchmark
+    public String getComposite() throws Exception {
+        return propertyResolver.getProperty("jdbc:${bench.zone}:${bench.missing:${bench.port}}", String.class);
+    }
+
+    @Benchmark
+    public int getIntPrimitive() throws Exception {
+        return propertyResolver.getInt("bench.port");
+    }
+
+    @Benchmark
+    public BenchProperties bind() throws Exception {
+        return propertyResolver.bind("bench", new BenchProperties());
+    }
+
+    public static class BenchProperties {
+
+        String zone;
+
+        int timeout;
+
+        int port;
+    }
+}
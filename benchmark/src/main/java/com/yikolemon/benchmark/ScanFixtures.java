@@ -0,0 +1,115 @@
+package com.yikolemon.benchmark;
+
+import com.yikolemon.ioc.resource.ClassResourceResolver;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+/**
+ * 为扫描基准测试准备同一份class文件的目录形式和jar形式
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class ScanFixtures {
+
+    /**
+     * 被扫描的包
+     */
+    public static final String SCAN_PACKAGE = "com.yikolemon.ioc";
+
+    private final Path dir;
+
+    private final Path jar;
+
+    private ScanFixtures(Path dir, Path jar) {
+        this.dir = dir;
+        this.jar = jar;
+    }
+
+    /**
+     * 从容器自身所在的位置(jar或目录)复制出 com/yikolemon/ioc 下的资源
+     */
+    public static ScanFixtures create() throws IOException, URISyntaxException {
+        Path source = Paths.get(ClassResourceResolver.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Path work = Files.createTempDirectory("scan-fixtures");
+        Path dir = Files.createDirectories(work.resolve("classes"));
+        Path jar = work.resolve("classes.jar");
+        String prefix = SCAN_PACKAGE.replace(".", "/") + "/";
+        if (Files.isDirectory(source)){
+            copyTree(source, dir, prefix);
+        }else{
+            extractJar(source, dir, prefix);
+        }
+        writeJar(dir, jar);
+        return new ScanFixtures(dir, jar);
+    }
+
+    public ClassLoader directoryClassLoader() throws IOException {
+        return new URLClassLoader(new URL[]{dir.toUri().toURL()}, null);
+    }
+
+    public ClassLoader jarClassLoader() throws IOException {
+        return new URLClassLoader(new URL[]{jar.toUri().toURL()}, null);
+    }
+
+    private static void copyTree(Path source, Path target, String prefix) throws IOException {
+        Path from = source.resolve(prefix);
+        Files.walkFileTree(from, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path to = target.resolve(source.relativize(file).toString());
+                Files.createDirectories(to.getParent());
+                Files.copy(file, to, StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void extractJar(Path source, Path target, String prefix) throws IOException {
+        try (JarFile jarFile = new JarFile(source.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !entry.getName().startsWith(prefix)){
+                    continue;
+                }
+                Path to = target.resolve(entry.getName());
+                Files.createDirectories(to.getParent());
+                try (InputStream in = jarFile.getInputStream(entry)) {
+                    Files.copy(in, to, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    public static void writeJar(Path dir, Path jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+                    if (!d.equals(dir)){
+                        out.putNextEntry(new JarEntry(dir.relativize(d).toString().replace("\\", "/") + "/"));
+                        out.closeEntry();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    out.putNextEntry(new JarEntry(dir.relativize(file).toString().replace("\\", "/")));
+                    Files.copy(file, out);
+                    out.closeEntry();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.yikolemon.benchmark.app;
+
+import com.yikolemon.benchmark.app.service.Clock;
+import com.yikolemon.ioc.annotation.Bean;
+import com.yikolemon.ioc.annotation.ComponentScan;
+import com.yikolemon.ioc.annotation.Configuration;
+import com.yikolemon.ioc.annotation.Value;
+
+/**
+ * 基准测试使用的小型应用
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@ComponentScan
+@Configuration
+public class BenchmarkConfig {
+
+    @Bean
+    public Clock clock(@Value("${bench.zone:UTC}") String zone) {
+        return new Clock(zone);
+    }
+}
@@ -0,0 +1,18 @@
+package com.yikolemon.benchmark.app.service;
+
+/**
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class Clock {
+
+    private final String zone;
+
+    public Clock(String zone) {
+        this.zone = zone;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+}
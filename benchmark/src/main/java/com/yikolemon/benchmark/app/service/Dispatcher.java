@@ -0,0 +1,26 @@
+package com.yikolemon.benchmark.app.service;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Component;
+import com.yikolemon.ioc.annotation.Value;
+
+/**
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@Component
+public class Dispatcher {
+
+    private final Handler handler;
+
+    @Value("${bench.timeout:30}")
+    int timeout;
+
+    public Dispatcher(@Autowired Handler handler) {
+        this.handler = handler;
+    }
+
+    public String dispatch(String request) {
+        return handler.handle(request);
+    }
+}
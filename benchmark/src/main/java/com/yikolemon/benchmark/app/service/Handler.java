@@ -0,0 +1,10 @@
+package com.yikolemon.benchmark.app.service;
+
+/**
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public interface Handler {
+
+    String handle(String request);
+}
@@ -0,0 +1,22 @@
+package com.yikolemon.benchmark.app.service;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Component;
+import com.yikolemon.ioc.annotation.Primary;
+
+/**
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@Component
+@Primary
+public class OrderHandler implements Handler {
+
+    @Autowired
+    Clock clock;
+
+    @Override
+    public String handle(String request) {
+        return "order:" + request + "@" + clock.getZone();
+    }
+}
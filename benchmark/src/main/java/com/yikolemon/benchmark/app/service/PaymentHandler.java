@@ -0,0 +1,20 @@
+package com.yikolemon.benchmark.app.service;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Component;
+
+/**
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@Component
+public class PaymentHandler implements Handler {
+
+    @Autowired
+    Clock clock;
+
+    @Override
+    public String handle(String request) {
+        return "payment:" + request + "@" + clock.getZone();
+    }
+}
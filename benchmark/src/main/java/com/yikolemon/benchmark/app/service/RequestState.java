@@ -0,0 +1,26 @@
+package com.yikolemon.benchmark.app.service;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Component;
+import com.yikolemon.ioc.annotation.Scope;
+import com.yikolemon.ioc.annotation.Value;
+
+/**
+ * 每次获取都新建的prototype Bean
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@Scope("prototype")
+@Component
+public class RequestState {
+
+    @Autowired
+    Clock clock;
+
+    @Value("${bench.timeout:30}")
+    int timeout;
+
+    public int getTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,281 @@
+package com.yikolemon.benchmark.startup;
+
+import com.yikolemon.ioc.context.AnnotationConfigApplicationContext;
+import com.yikolemon.ioc.properties.PropertyResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 针对合成应用的启动回归测试: 多次启动容器, 统计启动耗时、分配量和常驻堆,
+ * 与基线比较, 超出阈值时失败(main抛出异常, 通过exec插件运行时构建失败).
+ * 启动耗时以同一个JVM中固定校准负载的耗时为单位记录(相对耗时), 基线可以在不同机器之间共用;
+ * 分配量和常驻堆与硬件无关, 但随JVM版本变化, 因此基线按合成应用的规模和Java版本分别记录.
+ * 缺少对应基线时同样失败, 需要通过startup.updateBaseline显式生成.
+ * <p>
+ * 参数均为系统属性:
+ * startup.components, startup.configurations, startup.beansPerConfiguration, startup.fanOut,
+ * startup.packaging(DIRECTORY/JAR), startup.iterations, startup.threshold(启动耗时允许的相对回退, 默认0.2),
+ * startup.allocationThreshold(分配量, 默认0.1), startup.retainedThreshold(常驻堆, 默认0.25),
+ * startup.maxMillis(绝对上限, 可选), startup.baseline(基线文件), startup.updateBaseline
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class StartupRegressionHarness {
+
+    public static void main(String[] args) throws Exception {
+        SyntheticAppGenerator.Spec spec = SyntheticAppGenerator.Spec.builder()
+                .components(Integer.getInteger("startup.components", 2000))
+                .configurations(Integer.getInteger("startup.configurations", 20))
+                .beansPerConfiguration(Integer.getInteger("startup.beansPerConfiguration", 10))
+                .fanOut(Integer.getInteger("startup.fanOut", 3))
+                .packaging(SyntheticAppGenerator.Packaging.valueOf(System.getProperty("startup.packaging", "DIRECTORY")))
+                .build();
+        int iterations = Integer.getInteger("startup.iterations", 5);
+        Thresholds thresholds = new Thresholds(
+                Double.parseDouble(System.getProperty("startup.threshold", "0.2")),
+                Double.parseDouble(System.getProperty("startup.allocationThreshold", "0.1")),
+                Double.parseDouble(System.getProperty("startup.retainedThreshold", "0.25")));
+        Path baselineFile = Paths.get(System.getProperty("startup.baseline", "startup-baseline.properties"));
+
+        Path workDir = Files.createTempDirectory("synthetic-app");
+        Result result;
+        try {
+            SyntheticAppGenerator.SyntheticApp app = new SyntheticAppGenerator().generate(spec, workDir);
+            System.out.printf("generated %d components, %d @Bean methods as %s%n", spec.getComponents(),
+                    spec.getConfigurations() * spec.getBeansPerConfiguration(), spec.getPackaging());
+            result = measure(app, iterations);
+        } finally {
+            delete(workDir);
+        }
+        System.out.printf("startup median %.1f ms (min %.1f ms) = %.2f x calibration %.1f ms, allocated %.1f MB, retained %.1f MB%n",
+                result.startupMillis, result.minStartupMillis, result.relativeStartup, result.calibrationMillis,
+                result.allocatedBytes / 1048576.0, result.retainedBytes / 1048576.0);
+
+        check(result, baselineKey(spec), baselineFile, thresholds);
+    }
+
+    static class Result {
+
+        double startupMillis;
+
+        double minStartupMillis;
+
+        //校准负载的最小耗时
+        double calibrationMillis;
+
+        //启动耗时 / 校准负载耗时
+        double relativeStartup;
+
+        long allocatedBytes;
+
+        long retainedBytes;
+    }
+
+    /**
+     * 允许的相对回退
+     */
+    static class Thresholds {
+
+        final double startup;
+
+        final double allocation;
+
+        final double retained;
+
+        Thresholds(double startup, double allocation, double retained) {
+            this.startup = startup;
+            this.allocation = allocation;
+            this.retained = retained;
+        }
+    }
+
+    /**
+     * 基线按规模和Java版本区分, 如 2000x20x10x3.DIRECTORY.java1.8
+     */
+    static String baselineKey(SyntheticAppGenerator.Spec spec) {
+        return spec.getComponents() + "x" + spec.getConfigurations() + "x" + spec.getBeansPerConfiguration()
+                + "x" + spec.getFanOut() + "." + spec.getPackaging() + ".java" + System.getProperty("java.specification.version");
+    }
+
+    //校准负载的结果, 避免被JIT消除
+    private static volatile long calibrationSink;
+
+    //测量常驻堆期间保持context可达
+    private static volatile Object measuredContext;
+
+    /**
+     * 固定的校准负载: 与扫描和创建BeanDefinition相近的字符串拼接、哈希、排序和小对象分配.
+     * 重复执行取最小值, 排除GC和调度造成的个别停顿
+     * @return 耗时, 毫秒
+     */
+    static double calibrate() {
+        double min = Double.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            Map<String, Integer> index = new HashMap<>();
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < 40_000; i++) {
+                String name = "com.example.pkg" + (i % 97) + ".Component" + i;
+                names.add(name);
+                index.put(name, i);
+            }
+            Collections.sort(names);
+            CRC32 crc = new CRC32();
+            for (String name : names) {
+                crc.update(name.getBytes(StandardCharsets.UTF_8));
+            }
+            calibrationSink += crc.getValue() + index.size();
+            min = Math.min(min, (System.nanoTime() - start) / 1e6);
+        }
+        return min;
+    }
+
+    static Result measure(SyntheticAppGenerator.SyntheticApp app, int iterations) throws Exception {
+        //配置只加载一次, 与应用自身的启动方式一致
+        PropertyResolver propertyResolver = new PropertyResolver();
+        propertyResolver.addProperties(app.getProperties());
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        double[] millis = new double[iterations];
+        double[] calibrationMillis = new double[iterations];
+        long allocated = 0;
+        long retained = 0;
+        //校准负载先完成JIT编译, 否则前几次测量到的是解释执行
+        for (int i = 0; i < 20; i++) {
+            calibrate();
+        }
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        try {
+            //第一次启动作为预热, 不计入结果
+            for (int i = -1; i < iterations; i++) {
+                //每次使用新的类加载器, 保证类加载和扫描都从冷状态开始
+                try (URLClassLoader classLoader = new URLClassLoader(new URL[]{app.getRoot().toUri().toURL()},
+                        StartupRegressionHarness.class.getClassLoader())) {
+                    Thread.currentThread().setContextClassLoader(classLoader);
+                    Class<?> configClass = Class.forName(SyntheticAppGenerator.CONFIG_CLASS, false, classLoader);
+                    //与启动交替执行, 两者受到相同的频率和负载波动影响
+                    double calibration = calibrate();
+                    long heapBefore = usedHeapAfterGc(memoryMXBean);
+                    long allocatedBefore = allocatedBytes(threadMXBean);
+                    long start = System.nanoTime();
+                    measuredContext = new AnnotationConfigApplicationContext(configClass, propertyResolver);
+                    long elapsed = System.nanoTime() - start;
+                    long allocatedAfter = allocatedBytes(threadMXBean);
+                    long heapAfter = usedHeapAfterGc(memoryMXBean);
+                    measuredContext = null;
+                    if (i >= 0){
+                        millis[i] = elapsed / 1e6;
+                        calibrationMillis[i] = calibration;
+                        allocated += allocatedAfter - allocatedBefore;
+                        retained += heapAfter - heapBefore;
+                    }
+                }
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+        Arrays.sort(millis);
+        Arrays.sort(calibrationMillis);
+        Result result = new Result();
+        result.startupMillis = millis[iterations / 2];
+        result.calibrationMillis = calibrationMillis[0];
+        result.relativeStartup = result.startupMillis / result.calibrationMillis;
+        result.minStartupMillis = millis[0];
+        result.allocatedBytes = allocated / iterations;
+        result.retainedBytes = retained / iterations;
+        return result;
+    }
+
+    static void check(Result result, String key, Path baselineFile, Thresholds thresholds) throws IOException {
+        String maxMillis = System.getProperty("startup.maxMillis");
+        if (maxMillis != null && result.startupMillis > Double.parseDouble(maxMillis)){
+            throw new IllegalStateException(String.format("startup %.1f ms exceeds startup.maxMillis %s ms",
+                    result.startupMillis, maxMillis));
+        }
+        Properties baseline = new Properties();
+        if (Files.exists(baselineFile)){
+            try (InputStream in = Files.newInputStream(baselineFile)) {
+                baseline.load(in);
+            }
+        }
+        if (Boolean.getBoolean("startup.updateBaseline")){
+            baseline.setProperty(key + ".startup.relative", String.valueOf(result.relativeStartup));
+            baseline.setProperty(key + ".allocated.bytes", String.valueOf(result.allocatedBytes));
+            baseline.setProperty(key + ".retained.bytes", String.valueOf(result.retainedBytes));
+            try (OutputStream out = Files.newOutputStream(baselineFile)) {
+                baseline.store(out, "startup regression baseline");
+            }
+            System.out.println("baseline " + key + " written to " + baselineFile.toAbsolutePath());
+            return;
+        }
+        if (baseline.getProperty(key + ".startup.relative") == null){
+            throw new IllegalStateException(String.format("no startup baseline for %s in %s, run with -Dstartup.updateBaseline=true to record it",
+                    key, baselineFile.toAbsolutePath()));
+        }
+        List<String> regressions = new ArrayList<>();
+        compare(regressions, "startup", result.relativeStartup, baseline, key + ".startup.relative", thresholds.startup, "%.2f x calibration", 1);
+        compare(regressions, "allocated", result.allocatedBytes, baseline, key + ".allocated.bytes", thresholds.allocation, "%.1f MB", 1048576.0);
+        compare(regressions, "retained", result.retainedBytes, baseline, key + ".retained.bytes", thresholds.retained, "%.1f MB", 1048576.0);
+        if (!regressions.isEmpty()){
+            throw new IllegalStateException("startup regressed: " + String.join("; ", regressions));
+        }
+    }
+
+    /**
+     * 比较一项指标, 超出基线阈值时记录
+     * @param unit 输出时的单位换算
+     */
+    private static void compare(List<String> regressions, String name, double actual, Properties baseline, String property,
+                                double threshold, String format, double unit) {
+        String value = baseline.getProperty(property);
+        if (value == null){
+            regressions.add("missing baseline " + property);
+            return;
+        }
+        double baselineValue = Double.parseDouble(value);
+        double limit = baselineValue * (1 + threshold);
+        System.out.printf("%s baseline " + format + ", limit " + format + "%n", name, baselineValue / unit, limit / unit);
+        if (actual > limit){
+            regressions.add(String.format("%s " + format + " > " + format + " (baseline " + format + " + %.0f%%)",
+                    name, actual / unit, limit / unit, baselineValue / unit, threshold * 100));
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            //先删除子路径
+            for (Path path : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static long allocatedBytes(ThreadMXBean threadMXBean) {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean){
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memoryMXBean) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,222 @@
+package com.yikolemon.benchmark.startup;
+
+import com.yikolemon.benchmark.ScanFixtures;
+import com.yikolemon.ioc.context.AnnotationConfigApplicationContext;
+import lombok.Builder;
+import lombok.Data;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 生成大规模的合成应用: @Component类、带@Bean方法的@Configuration类、@Value配置以及依赖扇入扇出,
+ * 使用JDK自带编译器离线编译, 输出为目录或jar
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class SyntheticAppGenerator {
+
+    public static final String BASE_PACKAGE = "synthetic.app";
+
+    public static final String CONFIG_CLASS = BASE_PACKAGE + ".SyntheticConfig";
+
+    /**
+     * 每个子包中的组件数量
+     */
+    private static final int COMPONENTS_PER_PACKAGE = 100;
+
+    public enum Packaging {
+        DIRECTORY,
+        JAR
+    }
+
+    @Data
+    @Builder
+    public static class Spec {
+
+        @Builder.Default
+        private int components = 2000;
+
+        @Builder.Default
+        private int configurations = 20;
+
+        @Builder.Default
+        private int beansPerConfiguration = 10;
+
+        /**
+         * 每个组件依赖的组件数量
+         */
+        @Builder.Default
+        private int fanOut = 3;
+
+        /**
+         * 被依赖的概率集中在前hubs个组件上, 形成高扇入
+         */
+        @Builder.Default
+        private int hubs = 20;
+
+        /**
+         * 带@Value字段的组件比例
+         */
+        @Builder.Default
+        private double valueRatio = 0.3;
+
+        @Builder.Default
+        private Packaging packaging = Packaging.DIRECTORY;
+
+        @Builder.Default
+        private long seed = 42;
+    }
+
+    /**
+     * 生成结果
+     */
+    @Data
+    public static class SyntheticApp {
+
+        /**
+         * classpath根: 目录或jar
+         */
+        private final Path root;
+
+        private final Properties properties;
+    }
+
+    public SyntheticApp generate(Spec spec, Path workDir) throws IOException, URISyntaxException {
+        Path sources = Files.createDirectories(workDir.resolve("src"));
+        Path classes = Files.createDirectories(workDir.resolve("classes"));
+        Random random = new Random(spec.getSeed());
+        Properties properties = new Properties();
+
+        writeSource(sources, CONFIG_CLASS, configSource());
+        writeSource(sources, BASE_PACKAGE + ".config.Payload", payloadSource());
+        for (int i = 0; i < spec.getComponents(); i++) {
+            writeSource(sources, componentClassName(i), componentSource(i, spec, random, properties));
+        }
+        for (int i = 0; i < spec.getConfigurations(); i++) {
+            writeSource(sources, BASE_PACKAGE + ".config.Configuration" + i, configurationSource(i, spec, properties));
+        }
+        compile(sources, classes);
+        try (Writer writer = Files.newBufferedWriter(classes.resolve("application.properties"), StandardCharsets.ISO_8859_1)) {
+            properties.store(writer, "synthetic application");
+        }
+        if (spec.getPackaging() == Packaging.JAR){
+            Path jar = workDir.resolve("synthetic-app.jar");
+            ScanFixtures.writeJar(classes, jar);
+            return new SyntheticApp(jar, properties);
+        }
+        return new SyntheticApp(classes, properties);
+    }
+
+    private static String componentClassName(int index) {
+        return BASE_PACKAGE + ".p" + (index / COMPONENTS_PER_PACKAGE) + ".Component" + index;
+    }
+
+    private static String configSource() {
+        return "package " + BASE_PACKAGE + ";\n\n"
+                + "import com.yikolemon.ioc.annotation.*;\n\n"
+                + "@ComponentScan\n@Configuration\npublic class SyntheticConfig {\n}\n";
+    }
+
+    private static String payloadSource() {
+        return "package " + BASE_PACKAGE + ".config;\n\n"
+                + "public class Payload {\n"
+                + "    private final String value;\n"
+                + "    public Payload(String value) { this.value = value; }\n"
+                + "    public String getValue() { return value; }\n"
+                + "}\n";
+    }
+
+    /**
+     * 组件只依赖编号更小的组件, 保证依赖图无环; 一半依赖落在hub组件上
+     */
+    private static String componentSource(int index, Spec spec, Random random, Properties properties) {
+        String className = componentClassName(index);
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        Set<Integer> deps = new TreeSet<>();
+        for (int i = 0; i < spec.getFanOut() && index > 0; i++) {
+            int bound = random.nextBoolean() ? Math.min(spec.getHubs(), index) : index;
+            deps.add(random.nextInt(bound));
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(className, 0, className.lastIndexOf('.')).append(";\n\n")
+                .append("import com.yikolemon.ioc.annotation.*;\n\n")
+                .append("@Component\npublic class ").append(simpleName).append(" {\n\n");
+        //第一个依赖使用构造方法注入, 其余使用字段注入
+        Iterator<Integer> iterator = deps.iterator();
+        Integer constructorDep = iterator.hasNext() ? iterator.next() : null;
+        while (iterator.hasNext()) {
+            int dep = iterator.next();
+            sb.append("    @Autowired\n    ").append(componentClassName(dep)).append(" dep").append(dep).append(";\n\n");
+        }
+        if (random.nextDouble() < spec.getValueRatio()){
+            String key = "synthetic.component" + index;
+            properties.setProperty(key + ".name", simpleName);
+            properties.setProperty(key + ".size", String.valueOf(random.nextInt(1000)));
+            sb.append("    @Value(\"${").append(key).append(".name}\")\n    String name;\n\n")
+                    .append("    @Value(\"${").append(key).append(".size}\")\n    int size;\n\n");
+        }
+        if (constructorDep != null){
+            String depClass = componentClassName(constructorDep);
+            sb.append("    final ").append(depClass).append(" ctorDep;\n\n")
+                    .append("    public ").append(simpleName).append("(@Autowired ").append(depClass).append(" ctorDep) {\n")
+                    .append("        this.ctorDep = ctorDep;\n    }\n");
+        }else{
+            sb.append("    public ").append(simpleName).append("() {\n    }\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private static String configurationSource(int index, Spec spec, Properties properties) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(BASE_PACKAGE).append(".config;\n\n")
+                .append("import com.yikolemon.ioc.annotation.*;\n\n")
+                .append("@Configuration\npublic class Configuration").append(index).append(" {\n\n");
+        for (int i = 0; i < spec.getBeansPerConfiguration(); i++) {
+            String key = "synthetic.bean" + index + "_" + i;
+            properties.setProperty(key, key);
+            sb.append("    @Bean\n    public Payload payload").append(index).append('_').append(i)
+                    .append("(@Value(\"${").append(key).append("}\") String value) {\n")
+                    .append("        return new Payload(value);\n    }\n\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private static void writeSource(Path sources, String className, String source) throws IOException {
+        Path file = sources.resolve(className.replace('.', File.separatorChar) + ".java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void compile(Path sources, Path classes) throws IOException, URISyntaxException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null){
+            throw new IllegalStateException("a JDK is required to compile the synthetic application");
+        }
+        String containerClasspath = Paths.get(AnnotationConfigApplicationContext.class
+                .getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "-nowarn", "-parameters", "-encoding", "UTF-8",
+                "-cp", containerClasspath, "-d", classes.toString()));
+        try (Stream<Path> walk = Files.walk(sources)) {
+            args.addAll(walk.filter(p -> p.toString().endsWith(".java"))
+                    .map(Path::toString)
+                    .collect(Collectors.toList()));
+        }
+        int exit = compiler.run(null, null, System.err, args.toArray(new String[0]));
+        if (exit != 0){
+            throw new IllegalStateException("cannot compile synthetic application, javac exit code " + exit);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.yikolemon.ioc.annotation;
+
+import java.lang.annotation.*;
+
+@Target({ ElementType.TYPE, ElementType.METHOD, ElementType.FIELD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Lazy {
+
+    /**
+     * Create on first use; on an injection point, inject a proxy.
+     */
+    boolean value() default true;
+}
@@ -0,0 +1,14 @@
+package com.yikolemon.ioc.annotation;
+
+import java.lang.annotation.*;
+
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scope {
+
+    /**
+     * Scope name.
+     */
+    String value() default "singleton";
+}
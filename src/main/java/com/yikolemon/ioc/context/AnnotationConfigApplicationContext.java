@@ -1,16 +1,27 @@
 package com.yikolemon.ioc.context;
 
 import com.sun.istack.internal.Nullable;
-import com.yikolemon.ioc.annotation.Autowired;
-import com.yikolemon.ioc.annotation.Value;
+import com.yikolemon.ioc.metrics.BeanStep;
+import com.yikolemon.ioc.metrics.StartupMetrics;
+import com.yikolemon.ioc.metrics.StartupStep;
 import com.yikolemon.ioc.properties.PropertyResolver;
 import com.yikolemon.ioc.properties.ValueInjectException;
+import com.yikolemon.ioc.resource.ClassResourceWatcher;
 import com.yikolemon.ioc.util.ClassUtil;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
@@ -20,115 +31,440 @@ import java.util.stream.Collectors;
 public class AnnotationConfigApplicationContext implements Serializable {
     private static final long serialVersionUID = -7780096685700083702L;
 
+    private static final Logger LOGGER = Logger.getLogger(AnnotationConfigApplicationContext.class.getName());
+
+    /**
+     * 启动完成后只有热扫描会修改, 使用ConcurrentHashMap保证运行期getBean无锁读取
+     */
     Map<String, BeanDefinition> nameToBeans;
 
     Map<Class<?>, BeanDefinition> clazzToBeans;
 
     Set<String> creatingBeanNames;
 
+    /**
+     * 按类型查找的索引, BeanDefinition变化后整体重建
+     */
+    transient volatile BeanTypeIndex beanTypeIndex;
+
+    /**
+     * 设置为true时监听file:类型classpath下组件扫描包的class变化, 增量注册Bean
+     */
+    public static final String HOT_RESCAN_PROPERTY = "yikolemon.context.hot-rescan";
+
+    /**
+     * 并行创建Bean的线程数, 大于1时按依赖图并行创建互不依赖的Bean
+     */
+    public static final String CREATION_PARALLELISM_PROPERTY = "yikolemon.context.parallelism";
+
+    /**
+     * 设置为true时未标注@Lazy(false)的Bean都在第一次使用时创建, 适用于需要快速启动的场景
+     */
+    public static final String LAZY_INIT_PROPERTY = "yikolemon.context.lazy-init";
+
+    final boolean lazyByDefault = Boolean.getBoolean(LAZY_INIT_PROPERTY);
+
+    /**
+     * 调用构造方法、工厂方法以及注入字段和setter的方式: reflection(默认)或者method-handle
+     */
+    public static final String ACCESSOR_PROPERTY = "yikolemon.context.accessor";
+
+    final AccessorStrategy accessorStrategy = AccessorStrategy.of(System.getProperty(ACCESSOR_PROPERTY, "reflection"));
+
+    /**
+     * 设置为true时监听classpath下的application.properties, 变化时重新加载配置, @Refreshable Bean的@Value随之更新
+     */
+    public static final String PROPERTY_WATCH_PROPERTY = "yikolemon.context.property-watch";
+
+    /**
+     * 启动时的单例Bean全部创建完成后, 按需创建的Bean需要立即注入
+     */
+    volatile boolean eagerSingletonsCreated = false;
+
+    Class<?> configClazz;
+
+    /**
+     * 容器自己的配置, 多个容器之间互不影响
+     */
+    final transient PropertyResolver propertyResolver;
+
+    transient ClassResourceWatcher classResourceWatcher;
+
+    /**
+     * 热扫描应用class变化后的回调
+     */
+    transient List<Consumer<ClassChangeResult>> classChangeListeners = new CopyOnWriteArrayList<>();
+
+    transient StartupMetrics startupMetrics = StartupMetrics.create();
+
+    /**
+     * Bean名称 -> 创建和注入计划
+     */
+    transient Map<String, BeanPlan> beanPlans = new ConcurrentHashMap<>();
+
+    /**
+     * AOT快照中的注入点, 启动完成后丢弃, 不持有Bean类
+     */
+    transient Map<Class<?>, List<InjectionMetadata.InjectionPoint>> preloadedInjectionPoints = Collections.emptyMap();
+
+    /**
+     * 作用域名称 -> 作用域, singleton和prototype不在其中
+     */
+    transient Map<String, BeanScope> scopes = new ConcurrentHashMap<>(Collections.singletonMap(BeanScope.THREAD, new ThreadScope()));
+
+    /**
+     * 创建中的非单例Bean, 用于检测循环依赖
+     */
+    transient ThreadLocal<Set<String>> creatingScopedBeanNames = ThreadLocal.withInitial(HashSet::new);
+
+    /**
+     * @Refreshable单例Bean的@Value注入点, 配置变化时只重新注入读取了变化配置项的注入点
+     */
+    transient List<RefreshableValue> refreshableValues = new CopyOnWriteArrayList<>();
+
+    transient Consumer<Set<String>> propertyChangeListener;
+
+    /**
+     * 重新注入失败时的回调, 未注册时记录警告日志
+     */
+    transient List<Consumer<RefreshFailure>> refreshFailureListeners = new CopyOnWriteArrayList<>();
+
+    //只保护refreshableValues的登记和重新注入, 不与Bean创建的锁嵌套
+    private final transient Object refreshLock = new Object();
+
+    /**
+     * 启动完成后按需创建的单例Bean, 注入完成前只对持有{@link #singletonCreationLock}的线程可见,
+     * 用于解决字段之间的循环依赖
+     */
+    private final transient Map<String, Object> earlySingletonInstances = new HashMap<>();
+
+    //启动完成后创建单例Bean时持有, 避免两个线程按相反的顺序创建互相依赖的Bean时死锁
+    private final transient Object singletonCreationLock = new Object();
+
     public Object createBeanAsEarlySingleton(BeanDefinition def) throws ValueInjectException {
+        Object instance = instantiateSingleton(def);
+        def.setInstance(instance);
+        //TODO BeanPostProcessor注入
+        return instance;
+    }
+
+    /**
+     * 创建单例实例但不发布, 创建失败后可以重试
+     */
+    private Object instantiateSingleton(BeanDefinition def) throws ValueInjectException {
         if (!this.creatingBeanNames.add(def.getName())){
             //检测到重复创建Bean导致的循环依赖
             throw new RuntimeException("repeat create error");
         }
-        //获取创建Bean的构造方法或者工厂方法
-        Executable createFun = def.getFactoryName() == null ? def.getConstructor() : def.getFactoryMethod();
-        Parameter[] parameters = createFun.getParameters();
-        Object[] args = new Object[parameters.length];
-        boolean isConfiguration = isConfigurationDefinition(def);
-        for (int i = 0; i < parameters.length; i++) {
-            Value value = ClassUtil.getAnnotation(parameters[i], Value.class);
-            Autowired autowired = ClassUtil.getAnnotation(parameters[i], Autowired.class);
-            if (isConfiguration && autowired != null){
-                throw new RuntimeException("cannot specify @Autowired when creating @Configuration Bean");
-            }
-            //参数需要@Value或者@Autowired两者之一
-            if (value != null && autowired != null){
-                throw new RuntimeException("cannot specify both @Autowired and @Value at same time");
-            }
-            if (value == null && autowired == null) {
-                throw new RuntimeException("must specify @Autowired or @Value");
-            }
-            //参数类型
-            Class<?> type = parameters[i].getType();
-            //注入@Value
-            if (value != null){
-                args[i] = PropertyResolver.getRequiredProperty(value.value(), type);
+        try {
+            return instantiate(def);
+        } finally {
+            creatingBeanNames.remove(def.getName());
+        }
+    }
+
+    /**
+     * 按创建计划解析参数并调用构造方法或工厂方法, 不做字段注入
+     */
+    private Object instantiate(BeanDefinition def) throws ValueInjectException {
+        BeanPlan plan = getPlan(def);
+        StartupStep resolveStep = startupMetrics.beanStep(def.getName(), BeanStep.DEPENDENCY_RESOLUTION);
+        Object[] args = new Object[plan.arguments.length];
+        for (int i = 0; i < args.length; i++) {
+            InjectionMetadata.InjectionPoint argument = plan.arguments[i];
+            if (argument.isValue()){
+                //注入@Value
+                args[i] = propertyResolver.getRequiredProperty(argument.valueExpression, argument.genericType);
+                continue;
             }
-            if (autowired != null){
-                String name = def.getName();
-                BeanDefinition dependencyDef = StringUtils.isEmpty(name) ? findPrimaryBeanDefinition(type) :
-                        findBeanDefinition(name, type);
-                Object dependencyInstance = dependencyDef.getInstance();
-                if (dependencyInstance == null){
-                    //依赖类需要初始化
-                    dependencyInstance = createBeanAsEarlySingleton(dependencyDef);
-                }
-                args[i] = dependencyInstance;
+            //@Lazy参数注入代理, 否则依赖类可能需要初始化
+            args[i] = findDependency(argument);
+            if (args[i] == null){
+                throw new RuntimeException(String.format("Missing autowired bean with type '%s' when create bean '%s'",
+                        (argument.isMultiple() ? argument.elementType : argument.type).getName(), def.getName()));
             }
         }
+        resolveStep.end();
         //创建实例
         Object instance;
+        StartupStep instantiateStep;
         if (def.getConstructor() != null){
+            instantiateStep = startupMetrics.beanStep(def.getName(), BeanStep.INSTANTIATION);
             //构造方法
             try {
-                instance = def.getConstructor().newInstance(args);
-            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                instance = plan.instantiator.create(null, args);
+            } catch (Throwable e) {
                 throw new RuntimeException(String.format("Exception when creating bean '%s : '%s'",
-                        def.getName(), e.getMessage()));
+                        def.getName(), e.getMessage()), e);
             }
         }else{
-            Object bean = getBean(def.getFactoryName());
+            BeanDefinition factoryDef = findBeanDefinition(def.getFactoryName());
+            //工厂Bean可能尚未创建
+            Object bean = getOrCreateInstance(factoryDef);
+            instantiateStep = startupMetrics.beanStep(def.getName(), BeanStep.INSTANTIATION);
             //使用工厂方法构建
-            Method factoryMethod = def.getFactoryMethod();
             try {
-                instance =  factoryMethod.invoke(bean, args);
-            } catch (Exception e) {
-                throw new RuntimeException("invoke factory method creating bean error");
+                instance = plan.instantiator.create(bean, args);
+            } catch (Throwable e) {
+                throw new RuntimeException("invoke factory method creating bean error", e);
             }
         }
-        //TODO BeanPostProcessor注入
+        instantiateStep.end();
         return instance;
     }
 
+    private BeanPlan getPlan(BeanDefinition def) {
+        BeanPlan plan = beanPlans.get(def.getName());
+        if (plan == null){
+            plan = BeanPlan.build(def, accessorStrategy, preloadedInjectionPoints.get(def.getBeanClass()));
+            beanPlans.put(def.getName(), plan);
+        }
+        return plan;
+    }
+
 
     public AnnotationConfigApplicationContext(Class<?> configClazz, PropertyResolver propertyResolver) throws NoSuchMethodException, ValueInjectException {
-        ResourceScanner resourceScanner = new ResourceScanner();
-        Set<String> clazzNameSet = resourceScanner.scanForClazzName(configClazz);
-        nameToBeans = resourceScanner.createBeanDefinitions(clazzNameSet);
+        this(configClazz, propertyResolver, null);
+    }
+
+    /**
+     * @param propertyResolver     容器使用的配置, 为null时使用默认配置来源创建一个新的实例
+     * @param beanCreationExecutor 并行创建Bean的线程池, 为null时按{@link #CREATION_PARALLELISM_PROPERTY}决定
+     */
+    public AnnotationConfigApplicationContext(Class<?> configClazz, @Nullable PropertyResolver propertyResolver,
+                                              @Nullable Executor beanCreationExecutor) throws NoSuchMethodException, ValueInjectException {
+        this.configClazz = configClazz;
+        this.propertyResolver = propertyResolver != null ? propertyResolver : new PropertyResolver();
+        //存在AOT快照时直接还原BeanDefinition, 跳过扫描
+        StartupStep step = startupMetrics.phase("loadSnapshot");
+        ContextSnapshot.Restored snapshot = ContextSnapshot.load(configClazz, ClassUtil.getDefaultClassLoader());
+        step.end();
+        if (snapshot != null){
+            nameToBeans = new ConcurrentHashMap<>(snapshot.definitions);
+            preloadedInjectionPoints = snapshot.injectionPoints;
+        }else{
+            ResourceScanner resourceScanner = new ResourceScanner();
+            step = startupMetrics.phase("classpathScan");
+            Set<String> clazzNameSet = resourceScanner.scanForClazzName(configClazz);
+            step.end();
+            step = startupMetrics.phase("createBeanDefinitions");
+            nameToBeans = new ConcurrentHashMap<>(resourceScanner.createBeanDefinitions(clazzNameSet));
+            step.end();
+        }
+        beanTypeIndex = BeanTypeIndex.build(nameToBeans.values());
         //创建bean
-        createBeans();
+        step = startupMetrics.phase("createBeans");
+        createBeans(beanCreationExecutor);
+        eagerSingletonsCreated = true;
+        step.end();
         //注入bean
+        step = startupMetrics.phase("injectBeans");
         injectBeans();
+        step.end();
+        //之后按需创建的Bean按类查找注入点
+        preloadedInjectionPoints = Collections.emptyMap();
+        if (Boolean.getBoolean(PROPERTY_WATCH_PROPERTY)){
+            try {
+                this.propertyResolver.startWatching();
+            } catch (IOException e) {
+                throw new RuntimeException("cannot watch properties files", e);
+            }
+        }
+        if (Boolean.getBoolean(HOT_RESCAN_PROPERTY)){
+            try {
+                startHotRescan();
+            } catch (IOException e) {
+                throw new RuntimeException("cannot start hot rescan", e);
+            }
+        }
+    }
+
+    /**
+     * 监听组件扫描包下的class文件, 变化时调用{@link #applyClassChanges}, 只支持目录形式的classpath
+     */
+    public synchronized void startHotRescan() throws IOException {
+        if (classResourceWatcher != null){
+            return;
+        }
+        List<String> packages = new ResourceScanner().getScanPackages(configClazz);
+        classResourceWatcher = new ClassResourceWatcher(packages, changes -> {
+            ClassChangeResult result = applyClassChanges(changes);
+            classChangeListeners.forEach(listener -> listener.accept(result));
+        });
+        classResourceWatcher.start();
+    }
+
+    /**
+     * @param listener 热扫描每应用一批class变化后回调, 在监听线程上执行
+     */
+    public void addClassChangeListener(Consumer<ClassChangeResult> listener) {
+        classChangeListeners.add(listener);
+    }
+
+    public void removeClassChangeListener(Consumer<ClassChangeResult> listener) {
+        classChangeListeners.remove(listener);
+    }
+
+    public synchronized void stopHotRescan() throws IOException {
+        if (classResourceWatcher != null){
+            classResourceWatcher.close();
+            classResourceWatcher = null;
+        }
+    }
+
+    /**
+     * 增量应用class变化, 不重建整个容器:
+     * 删除的类对应的BeanDefinition(包括其@Bean工厂方法产生的Bean)会被移除, 已注入到其他Bean中的引用不会被撤回;
+     * 新增的类按正常流程创建BeanDefinition, 实例化并注入;
+     * 修改的类(包括非Bean的工具类和父类)如果已经加载, 同一个ClassLoader无法重新定义, 记录在结果中需要重启; 尚未加载的类按新增处理
+     * @param changes 一批class变化
+     * @return 应用结果
+     */
+    public synchronized ClassChangeResult applyClassChanges(ClassResourceWatcher.ClassChangeSet changes) {
+        ClassChangeResult result = new ClassChangeResult();
+        //移除
+        Set<String> removed = changes.getRemoved();
+        nameToBeans.values().removeIf(def -> {
+            boolean remove = removed.contains(def.getBeanClass().getName())
+                    || (def.getFactoryMethod() != null && removed.contains(def.getFactoryMethod().getDeclaringClass().getName()));
+            if (remove){
+                result.removedBeanNames.add(def.getName());
+            }
+            return remove;
+        });
+        beanTypeIndex = BeanTypeIndex.build(nameToBeans.values());
+        refreshableValues.removeIf(v -> !nameToBeans.containsKey(v.def.getName()));
+        //新增
+        ClassLoader classLoader = ClassUtil.getDefaultClassLoader();
+        Set<String> candidates = new HashSet<>(changes.getAdded());
+        for (String className : changes.getModified()) {
+            if (ClassUtil.isLoaded(classLoader, className)){
+                result.restartRequiredClassNames.add(className);
+            }else{
+                candidates.add(className);
+            }
+        }
+        if (candidates.isEmpty()){
+            return result;
+        }
+        Map<String, BeanDefinition> newDefs;
+        try {
+            newDefs = new ResourceScanner().createBeanDefinitions(candidates);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+        for (BeanDefinition def : newDefs.values()) {
+            if (nameToBeans.containsKey(def.getName())){
+                throw new RuntimeException("Duplicate bean name: " + def.getName());
+            }
+        }
+        nameToBeans.putAll(newDefs);
+        result.addedBeanNames.addAll(newDefs.keySet());
+        beanTypeIndex = BeanTypeIndex.build(nameToBeans.values());
+        //依赖的Bean可能变化, 计划需要重新解析
+        beanPlans.clear();
+        //启动已经完成, 创建时立即注入, 注入完成后才对其他线程可见
+        for (BeanDefinition def : newDefs.values()) {
+            if (isEagerSingleton(def)){
+                getOrCreateInstance(def);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 一批class变化的应用结果
+     */
+    public static class ClassChangeResult {
+
+        private final Set<String> addedBeanNames = new LinkedHashSet<>();
+
+        private final Set<String> removedBeanNames = new LinkedHashSet<>();
+
+        //已经加载的类发生了修改, 需要重启才能生效
+        private final Set<String> restartRequiredClassNames = new LinkedHashSet<>();
+
+        public Set<String> getAddedBeanNames() {
+            return Collections.unmodifiableSet(addedBeanNames);
+        }
+
+        public Set<String> getRemovedBeanNames() {
+            return Collections.unmodifiableSet(removedBeanNames);
+        }
+
+        public Set<String> getRestartRequiredClassNames() {
+            return Collections.unmodifiableSet(restartRequiredClassNames);
+        }
     }
 
     private void injectBeans(){
-        nameToBeans.values().forEach(definition -> {
+        //注入过程中按需创建的Bean在创建时已经完成注入
+        List<BeanDefinition> created = nameToBeans.values().stream().filter(def -> def.getInstance() != null).collect(Collectors.toList());
+        created.forEach(definition -> {
             //通过definition注入bean
             try {
-                injectBean(definition);
+                injectBean(definition, definition.getInstance());
             } catch (ValueInjectException | IllegalAccessException | InvocationTargetException  e) {
                 throw new RuntimeException(e);
             }
         });
     }
 
-    private void createBeans() throws ValueInjectException {
-        //创建中集合
-        this.creatingBeanNames = new HashSet<>();
-        //创建@Configuration类型的Bean
-        List<BeanDefinition> configBeanDefList = nameToBeans.values().stream()
-                .filter(BeanDefinition::getConfigurationDefinition)
-                .collect(Collectors.toList());
-        for (BeanDefinition def : configBeanDefList) {
-            createBeanAsEarlySingleton(def);
+    private void createBeans(@Nullable Executor executor) {
+        //创建中集合, 并行创建时会被多个线程修改
+        this.creatingBeanNames = ConcurrentHashMap.newKeySet();
+        //先@Configuration类型的Bean, 再剩余的Bean, 依赖图在此基础上保证依赖先创建
+        List<BeanDefinition> defList = new ArrayList<>(nameToBeans.size());
+        nameToBeans.values().stream().filter(def -> def.getConfigurationDefinition() && isEagerSingleton(def)).forEach(defList::add);
+        nameToBeans.values().stream().filter(def -> !def.getConfigurationDefinition() && isEagerSingleton(def)).forEach(defList::add);
+        BeanDependencyGraph graph = BeanDependencyGraph.build(defList, this::getCreationDependencies);
+        ExecutorService ownExecutor = null;
+        int parallelism = Integer.getInteger(CREATION_PARALLELISM_PROPERTY, 1);
+        if (executor == null && parallelism > 1){
+            ownExecutor = Executors.newFixedThreadPool(parallelism);
+            executor = ownExecutor;
+        }
+        try {
+            if (executor == null){
+                graph.getCreationOrder().forEach(this::getOrCreateInstance);
+            }else{
+                graph.execute(executor, this::getOrCreateInstance);
+            }
+        } finally {
+            if (ownExecutor != null){
+                ownExecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 创建Bean前必须已经创建的Bean: 工厂Bean以及构造方法/工厂方法中@Autowired参数对应的Bean,
+     * 找不到的依赖在创建时报错
+     */
+    private List<BeanDefinition> getCreationDependencies(BeanDefinition def) {
+        List<BeanDefinition> dependencies = new ArrayList<>();
+        if (def.getFactoryName() != null){
+            BeanDefinition factoryDef = findBeanDefinition(def.getFactoryName());
+            if (factoryDef != null){
+                dependencies.add(factoryDef);
+            }
         }
-        //创建剩余的Bean
-        List<BeanDefinition> restDefList = nameToBeans.values().stream()
-                .filter(def -> def.getInstance() == null).collect(Collectors.toList());
-        for (BeanDefinition def : restDefList) {
-            createBeanAsEarlySingleton(def);
+        for (InjectionMetadata.InjectionPoint argument : getPlan(def).arguments) {
+            //@Lazy参数在第一次调用时才解析, 不影响创建顺序
+            if (argument.isValue() || argument.lazy){
+                continue;
+            }
+            if (argument.isMultiple()){
+                dependencies.addAll(findBeanDefinition(argument.elementType));
+                continue;
+            }
+            BeanDefinition dependencyDef = StringUtils.isEmpty(argument.beanName) ? findPrimaryBeanDefinition(argument.type) :
+                    findBeanDefinition(argument.beanName, argument.type);
+            if (dependencyDef != null){
+                dependencies.add(dependencyDef);
+            }
         }
+        return dependencies;
     }
 
     @Nullable
@@ -136,31 +472,225 @@ public class AnnotationConfigApplicationContext implements Serializable {
         return this.nameToBeans.get(name);
     }
 
-    @Nullable
+    /**
+     * @return 可以赋值给clazz的BeanDefinition, 按@Order和名称排序, 不可修改
+     */
     public List<BeanDefinition> findBeanDefinition(Class<?> clazz){
-        return this.clazzToBeans.values().stream()
-                .filter(def -> clazz.isAssignableFrom(def.getBeanClass()))
-                .sorted()
-                .collect(Collectors.toList());
+        return beanTypeIndex.getCandidates(clazz);
     }
 
 
-    private Object getBean(String name){
-        BeanDefinition beanDefinition = nameToBeans.get(name);
-        Objects.requireNonNull(beanDefinition);
-        Object instance = beanDefinition.getInstance();
-        Objects.requireNonNull(instance);
-        return instance;
+    /**
+     * 按名称获取Bean, 读取路径无锁, 可以在任意线程并发调用
+     * @throws RuntimeException Bean不存在
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(String name){
+        BeanDefinition beanDefinition = findBeanDefinition(name);
+        if (beanDefinition == null){
+            throw new RuntimeException(String.format("No bean defined with name '%s'", name));
+        }
+        return (T) getOrCreateInstance(beanDefinition);
     }
 
-    private Object getBean(Class<?> type){
+    /**
+     * 按类型获取唯一的Bean或者@Primary Bean
+     * @throws RuntimeException Bean不存在或者存在多个候选但没有唯一的@Primary
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(Class<T> type){
         BeanDefinition beanDefinition = findPrimaryBeanDefinition(type);
-        return beanDefinition.getInstance();
+        if (beanDefinition == null){
+            throw new RuntimeException(String.format("No bean defined with type '%s'", type.getName()));
+        }
+        return (T) getOrCreateInstance(beanDefinition);
     }
 
-    private Object getBean(String name, Class<?> type){
+    /**
+     * 按名称获取Bean并检查类型
+     * @throws RuntimeException Bean不存在或者类型不匹配
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(String name, Class<T> type){
         BeanDefinition beanDefinition = findBeanDefinition(name, type);
-        return beanDefinition.getInstance();
+        if (beanDefinition == null){
+            throw new RuntimeException(String.format("No bean defined with name '%s' and type '%s'", name, type.getName()));
+        }
+        return (T) getOrCreateInstance(beanDefinition);
+    }
+
+    /**
+     * 获取实例, 尚未创建(@Lazy或者尚未轮到)时在当前线程创建, 每个单例Bean只会创建一次.
+     * 启动完成后创建的Bean注入完成后才发布, 无锁读取到的实例都已经完成注入; 非单例Bean交给对应的作用域
+     */
+    Object getOrCreateInstance(BeanDefinition def){
+        if (!isSingleton(def)){
+            return getScopedInstance(def);
+        }
+        Object instance = def.getInstance();
+        if (instance != null){
+            return instance;
+        }
+        if (!eagerSingletonsCreated){
+            //启动阶段字段在全部Bean创建完成后统一注入, 并行创建时按Bean加锁
+            synchronized (def) {
+                instance = def.getInstance();
+                if (instance != null){
+                    return instance;
+                }
+                try {
+                    return createBeanAsEarlySingleton(def);
+                } catch (ValueInjectException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        synchronized (singletonCreationLock) {
+            instance = def.getInstance();
+            if (instance == null){
+                //循环依赖中正在注入的Bean
+                instance = earlySingletonInstances.get(def.getName());
+            }
+            if (instance != null){
+                return instance;
+            }
+            try {
+                instance = instantiateSingleton(def);
+                earlySingletonInstances.put(def.getName(), instance);
+                injectBean(def, instance);
+                def.setInstance(instance);
+            } catch (ValueInjectException | IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            } finally {
+                earlySingletonInstances.remove(def.getName());
+            }
+            return instance;
+        }
+    }
+
+    private Object getScopedInstance(BeanDefinition def){
+        if (BeanScope.PROTOTYPE.equals(def.getScope())){
+            return createScopedInstance(def, null);
+        }
+        BeanScope scope = scopes.get(def.getScope());
+        if (scope == null){
+            throw new RuntimeException(String.format("No scope registered for name '%s' of bean '%s'", def.getScope(), def.getName()));
+        }
+        return scope.get(def.getName(), () -> createScopedInstance(def, scope));
+    }
+
+    /**
+     * 按缓存的计划创建并注入一个非单例实例
+     * @param scope 为null时(prototype)不注册销毁回调
+     */
+    private Object createScopedInstance(BeanDefinition def, @Nullable BeanScope scope){
+        Set<String> creating = creatingScopedBeanNames.get();
+        if (!creating.add(def.getName())){
+            throw new RuntimeException(String.format("Circular dependency when creating scoped bean '%s'", def.getName()));
+        }
+        try {
+            Object instance = instantiate(def);
+            injectProperties(def, instance);
+            Method destroyMethod = getDestroyMethod(def, instance);
+            if (scope != null && destroyMethod != null){
+                scope.registerDestructionCallback(def.getName(), () -> {
+                    try {
+                        destroyMethod.invoke(instance);
+                    } catch (IllegalAccessException | InvocationTargetException e) {
+                        throw new RuntimeException(String.format("Exception when destroying bean '%s'", def.getName()), e);
+                    }
+                });
+            }
+            return instance;
+        } catch (ValueInjectException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        } finally {
+            creating.remove(def.getName());
+        }
+    }
+
+    @Nullable
+    private static Method getDestroyMethod(BeanDefinition def, Object instance) {
+        if (def.getDestoryMethod() != null){
+            def.getDestoryMethod().setAccessible(true);
+            return def.getDestoryMethod();
+        }
+        if (def.getDestroyMethodName() != null){
+            try {
+                return instance.getClass().getMethod(def.getDestroyMethodName());
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(String.format("Destroy method '%s' not found on bean '%s'", def.getDestroyMethodName(), def.getName()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 注册自定义作用域, 同名作用域会被替换
+     */
+    public void registerScope(String name, BeanScope scope){
+        if (BeanScope.SINGLETON.equals(name) || BeanScope.PROTOTYPE.equals(name)){
+            throw new RuntimeException("Cannot replace built-in scope " + name);
+        }
+        scopes.put(name, scope);
+    }
+
+    @Nullable
+    public BeanScope getScope(String name){
+        return scopes.get(name);
+    }
+
+    /**
+     * 注入时查找依赖, 不存在时返回null, 由调用方根据required判断
+     * @Lazy的注入点注入代理, 第一次调用方法时才创建依赖; List/Map注入点注入全部候选
+     */
+    @Nullable
+    private Object findDependency(InjectionMetadata.InjectionPoint point){
+        if (point.isMultiple()){
+            if (findBeanDefinition(point.elementType).isEmpty()){
+                return null;
+            }
+            //@Lazy集合在第一次调用时才创建元素
+            return point.lazy ? LazyBeanProxy.create(point.type, () -> findBeans(point), false) : findBeans(point);
+        }
+        BeanDefinition beanDefinition = StringUtils.isEmpty(point.beanName) ? findPrimaryBeanDefinition(point.type) :
+                findBeanDefinition(point.beanName, point.type);
+        if (beanDefinition == null){
+            return null;
+        }
+        return point.lazy ? createLazyProxy(point.type, beanDefinition) : getOrCreateInstance(beanDefinition);
+    }
+
+    /**
+     * List<T>/Map<String, T>注入: 按@Order排序的全部候选, 候选都是单例时同类型的注入点共享同一个不可修改集合
+     */
+    private Object findBeans(InjectionMetadata.InjectionPoint point){
+        if (point.type == List.class){
+            return beanTypeIndex.getBeans(point.elementType, this::getOrCreateInstance, AnnotationConfigApplicationContext::isSingleton);
+        }
+        return beanTypeIndex.getBeanMap(point.elementType, this::getOrCreateInstance, AnnotationConfigApplicationContext::isSingleton);
+    }
+
+    /**
+     * 单例目标只解析一次; 非单例目标每次调用都从作用域获取, 保证调用落在当前作用域的实例上
+     */
+    private Object createLazyProxy(Class<?> type, BeanDefinition def){
+        return LazyBeanProxy.create(type, () -> getOrCreateInstance(def), isSingleton(def));
+    }
+
+    private boolean isLazy(BeanDefinition def){
+        return def.getLazy() != null ? def.getLazy() : lazyByDefault;
+    }
+
+    private static boolean isSingleton(BeanDefinition def){
+        return def.getScope() == null || BeanScope.SINGLETON.equals(def.getScope());
+    }
+
+    /**
+     * 启动时(或热扫描新增时)立即创建的Bean
+     */
+    private boolean isEagerSingleton(BeanDefinition def){
+        return isSingleton(def) && !isLazy(def);
     }
 
     @Nullable
@@ -175,28 +705,12 @@ public class AnnotationConfigApplicationContext implements Serializable {
         return beanDefinition;
     }
 
+    /**
+     * 唯一的候选或者@Primary候选, 已在构建索引时解析
+     */
     @Nullable
     public BeanDefinition findPrimaryBeanDefinition(Class<?> clazz){
-        List<BeanDefinition> beanDefinitionList = findBeanDefinition(clazz);
-        if (beanDefinitionList == null || beanDefinitionList.isEmpty()){
-            return null;
-        }
-        if (beanDefinitionList.size() == 1){
-            return beanDefinitionList.get(0);
-        }
-        //遍历查找primary
-        List<BeanDefinition> primaryBeanDefinitionListen = beanDefinitionList.stream()
-                .filter(BeanDefinition::getPrimary)
-                .collect(Collectors.toList());
-        if (primaryBeanDefinitionListen.size() == 0){
-            //抛出异常
-            throw new RuntimeException("no primary bean");
-        }else if (primaryBeanDefinitionListen.size() >= 2){
-            //找出primary的res
-            throw new RuntimeException("two many primary beans");
-        }else{
-            return primaryBeanDefinitionListen.get(0);
-        }
+        return beanTypeIndex.getPrimary(clazz);
     }
 
 
@@ -209,102 +723,162 @@ public class AnnotationConfigApplicationContext implements Serializable {
         return false;
     }
 
-    private void injectBean(BeanDefinition def) throws ValueInjectException, InvocationTargetException, IllegalAccessException {
-        Object instance = def.getInstance();
-        injectProperties(def, def.getBeanClass(), instance);
+    private void injectBean(BeanDefinition def, Object instance) throws ValueInjectException, InvocationTargetException, IllegalAccessException {
+        StartupStep step = startupMetrics.beanStep(def.getName(), BeanStep.INJECTION);
+        injectProperties(def, instance);
+        step.end();
+    }
+
+    public PropertyResolver getPropertyResolver() {
+        return propertyResolver;
+    }
+
+    /**
+     * @return 启动耗时统计, 通过 -Dyikolemon.startup.metrics=true 开启
+     */
+    public StartupMetrics getStartupMetrics() {
+        return startupMetrics;
     }
 
-    private void injectProperties(BeanDefinition def, Class<?> clazz, Object instance) throws ValueInjectException, InvocationTargetException, IllegalAccessException {
-        for (Field f : clazz.getDeclaredFields()) {
-            tryInjectProperties(def, def.beanClass, instance, f);
+    private void injectProperties(BeanDefinition def, Object instance) throws ValueInjectException, InvocationTargetException, IllegalAccessException {
+        for (InjectionMetadata.InjectionPoint point : getPlan(def).injectionPoints) {
+            Object value;
+            if (point.isValue()){
+                //@Value注入
+                value = propertyResolver.getRequiredProperty(point.valueExpression, point.genericType);
+            }else{
+                value = findDependency(point);
+                if (value == null){
+                    if (point.required){
+                        throw new RuntimeException("dependency bean not found when inject");
+                    }
+                    //非必需的字段保持默认值
+                    if (point.member instanceof Field){
+                        continue;
+                    }
+                }
+            }
+            try {
+                point.injector.inject(instance, value);
+            } catch (Throwable e) {
+                throw new RuntimeException(String.format("Exception when injecting %s for bean '%s'",
+                        point.member.getName(), def.getName()), e);
+            }
+            if (point.isValue() && def.isRefreshable() && isSingleton(def)){
+                registerRefreshableValue(new RefreshableValue(def, instance, point,
+                        propertyResolver.getReferencedKeys(point.valueExpression)));
+            }
         }
-        for (Method m : clazz.getDeclaredMethods()) {
-            tryInjectProperties(def, def.beanClass, instance, m);
+        if (def.getConfigurationPropertiesPrefix() != null){
+            //@ConfigurationProperties在@Value之后整体绑定
+            propertyResolver.bind(def.getConfigurationPropertiesPrefix(), instance);
         }
-        Class<?> superclass = clazz.getSuperclass();
-        if (superclass != null){
-            injectProperties(def, superclass, instance);
+    }
+
+    private void registerRefreshableValue(RefreshableValue refreshableValue) {
+        synchronized (refreshLock) {
+            refreshableValues.add(refreshableValue);
+            if (propertyChangeListener == null){
+                propertyChangeListener = this::refreshValues;
+                propertyResolver.addChangeListener(propertyChangeListener);
+            }
+        }
+    }
+
+    /**
+     * 重新注入读取了变化配置项的@Value, 解析或注入失败时保留原值
+     * @param changedKeys 值发生变化的配置项
+     */
+    private void refreshValues(Set<String> changedKeys) {
+        synchronized (refreshLock) {
+            for (RefreshableValue refreshableValue : refreshableValues) {
+                if (Collections.disjoint(refreshableValue.keys, changedKeys)){
+                    continue;
+                }
+                InjectionMetadata.InjectionPoint point = refreshableValue.point;
+                try {
+                    Object value = propertyResolver.getRequiredProperty(point.valueExpression, point.genericType);
+                    point.injector.inject(refreshableValue.instance, value);
+                    //嵌套引用的配置项可能变化
+                    refreshableValue.keys = propertyResolver.getReferencedKeys(point.valueExpression);
+                } catch (Throwable e) {
+                    reportRefreshFailure(new RefreshFailure(refreshableValue.def.getName(), point.member.getName(), e));
+                }
+            }
         }
     }
 
-    private void tryInjectProperties(BeanDefinition def, Class<?> clazz, Object instance,
-                                            AccessibleObject acc) throws ValueInjectException, IllegalAccessException, InvocationTargetException {
-        Value valAnno = acc.getAnnotation(Value.class);
-        Autowired autowiredAnno = acc.getAnnotation(Autowired.class);
+    /**
+     * @param listener 配置变化后重新注入@Value失败时回调, 在修改配置的线程上执行, 失败的注入点保留原值
+     */
+    public void addRefreshFailureListener(Consumer<RefreshFailure> listener) {
+        refreshFailureListeners.add(listener);
+    }
+
+    public void removeRefreshFailureListener(Consumer<RefreshFailure> listener) {
+        refreshFailureListeners.remove(listener);
+    }
 
-        //不需要注入
-        if (valAnno == null && autowiredAnno == null){
+    private void reportRefreshFailure(RefreshFailure failure) {
+        if (refreshFailureListeners.isEmpty()){
+            LOGGER.log(Level.WARNING, String.format("cannot refresh %s of bean '%s', keep the old value",
+                    failure.getMemberName(), failure.getBeanName()), failure.getCause());
             return;
         }
-        Field field = null;
-        if (acc instanceof Field){
-            Field f = (Field) acc;
-            checkFieldOrMethod(f);
-            f.setAccessible(true);
-            field = f;
-        }
-        Method method = null;
-        if (acc instanceof Method){
-            Method m = (Method) acc;
-            checkFieldOrMethod(m);
-            if (m.getParameters().length < 1){
-                throw new RuntimeException(String.format("Cannot inject a non-setter method %s for bean '%s': %s",
-                        m.getName(), def.getName(), def.getBeanClass().getName()));
-            }
-            m.setAccessible(true);
-            method = m;
+        for (Consumer<RefreshFailure> listener : refreshFailureListeners) {
+            listener.accept(failure);
         }
+    }
+
+    /**
+     * 一个@Value注入点重新注入失败
+     */
+    public static class RefreshFailure {
 
-        String accessibleName = field != null ? field.getName() : method.getName();
-        Class<?> accessibleType = field != null ? field.getType() : method.getParameterTypes()[0];
-        //同时存在两个注解
-        if (valAnno != null && autowiredAnno != null){
-            throw new RuntimeException(String.format("Cannot specify both @Autowired and @Value when inject %s.%s for bean '%s':'%s'",
-                    clazz.getSimpleName(), accessibleName, def.getName(), def.getBeanClass().getName()));
+        private final String beanName;
+
+        private final String memberName;
+
+        private final Throwable cause;
+
+        RefreshFailure(String beanName, String memberName, Throwable cause) {
+            this.beanName = beanName;
+            this.memberName = memberName;
+            this.cause = cause;
         }
 
-        //@Value注入
-        if (valAnno != null){
-            Object property = PropertyResolver.getRequiredProperty(valAnno.value(), accessibleType);
-            if (field != null){
-                //字段注入
-                field.set(instance, property);
-            }
-            if (method != null){
-                method.invoke(instance, property);
-            }
+        public String getBeanName() {
+            return beanName;
         }
 
-        if (autowiredAnno != null){
-            String name = autowiredAnno.name();
-            boolean required = autowiredAnno.value();
-            Object depends = name.isEmpty() ? getBean(accessibleType) : getBean(name, accessibleType);
-            if (required && depends == null){
-                throw new RuntimeException("dependency bean not found when inject");
-            }
-            if (depends != null){
-                if (field != null){
-                    field.set(instance, depends);
-                }
-            }
-            if (method != null){
-                method.invoke(instance, depends);
-            }
+        /**
+         * @return 字段名或setter方法名
+         */
+        public String getMemberName() {
+            return memberName;
         }
-    }
 
-    private static void checkFieldOrMethod(Member m){
-        int mod = m.getModifiers();
-        if (Modifier.isStatic(mod)){
-            throw new RuntimeException("cannot inject stastic field" + m);
+        public Throwable getCause() {
+            return cause;
         }
-        if (Modifier.isFinal(mod)){
-            if (m instanceof Field){
-                throw new RuntimeException("cannot inject final field" + m);
-            }
-            if (m instanceof Method){
-                System.out.println("inject final method should be careful because it is not called on target bean when bean is proxied and may cause NullPointerException.");
-            }
+    }
+
+    private static class RefreshableValue {
+
+        private final BeanDefinition def;
+
+        private final Object instance;
+
+        private final InjectionMetadata.InjectionPoint point;
+
+        //上一次解析时读取的配置项
+        private Set<String> keys;
+
+        RefreshableValue(BeanDefinition def, Object instance, InjectionMetadata.InjectionPoint point, Set<String> keys) {
+            this.def = def;
+            this.instance = instance;
+            this.point = point;
+            this.keys = keys;
         }
     }
 
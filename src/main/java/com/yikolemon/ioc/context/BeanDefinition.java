@@ -22,7 +22,8 @@ public class BeanDefinition {
 
     Class<?> beanClass;
 
-    Object instance = null;
+    //创建线程写入, 运行期其他线程读取
+    volatile Object instance = null;
 
     //构造方法,理应有多个
     Constructor<?> constructor;
@@ -38,6 +39,18 @@ public class BeanDefinition {
 
     Boolean primary;
 
+    //@Lazy, 为null时使用容器的默认模式
+    Boolean lazy;
+
+    //@Scope, 为null时为singleton
+    String scope;
+
+    //@Refreshable, 配置变化时重新注入@Value
+    boolean refreshable;
+
+    //@ConfigurationProperties的前缀, 为null时不绑定
+    String configurationPropertiesPrefix;
+
     String initMethodName;
 
     Method initMethod;
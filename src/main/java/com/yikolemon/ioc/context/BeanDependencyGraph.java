@@ -0,0 +1,164 @@
+package com.yikolemon.ioc.context;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bean之间的创建依赖图: 构造方法/工厂方法的@Autowired参数, 以及@Bean方法所在的工厂Bean.
+ * 构建时检查循环依赖并计算拓扑顺序, 之后可以按顺序串行创建, 或者在线程池上并行创建互不依赖的Bean.
+ * 依赖中的@Lazy、prototype等不在本次创建范围内的Bean也会加入图中, 它们在依赖方创建时才创建,
+ * 因此只传递依赖关系, 不执行创建
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+class BeanDependencyGraph {
+
+    private final List<Node> order;
+
+    private BeanDependencyGraph(List<Node> order) {
+        this.order = order;
+    }
+
+    /**
+     * @param definitions 需要创建的Bean, 顺序决定了互不依赖的Bean之间的创建顺序
+     * @param dependencyResolver 查询Bean创建时依赖的其他Bean
+     * @throws RuntimeException 存在循环依赖, 错误信息包含完整的依赖路径
+     */
+    static BeanDependencyGraph build(Collection<BeanDefinition> definitions,
+                                     Function<BeanDefinition, Collection<BeanDefinition>> dependencyResolver) {
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        for (BeanDefinition def : definitions) {
+            nodes.put(def.getName(), new Node(def, true));
+        }
+        Deque<Node> pending = new ArrayDeque<>(nodes.values());
+        while (!pending.isEmpty()) {
+            Node node = pending.poll();
+            for (BeanDefinition dependency : dependencyResolver.apply(node.definition)) {
+                Node dependencyNode = nodes.get(dependency.getName());
+                if (dependencyNode == null){
+                    //已经创建的单例不需要等待
+                    if (dependency.getInstance() != null){
+                        continue;
+                    }
+                    //随依赖方一起创建的Bean, 继续展开它的依赖, 否则经过它的环和等待关系会被遗漏
+                    dependencyNode = new Node(dependency, false);
+                    nodes.put(dependency.getName(), dependencyNode);
+                    pending.add(dependencyNode);
+                }
+                if (node.dependencies.add(dependencyNode)){
+                    dependencyNode.dependents.add(node);
+                }
+            }
+        }
+        List<Node> order = new ArrayList<>(nodes.size());
+        Set<Node> visited = new HashSet<>();
+        for (Node node : nodes.values()) {
+            visit(node, visited, new LinkedHashSet<>(), order);
+        }
+        return new BeanDependencyGraph(order);
+    }
+
+    private static void visit(Node node, Set<Node> visited, LinkedHashSet<Node> path, List<Node> order) {
+        if (visited.contains(node)){
+            return;
+        }
+        if (!path.add(node)){
+            //从环的起点开始输出路径
+            List<String> names = path.stream().map(n -> n.definition.getName()).collect(Collectors.toList());
+            List<String> cycle = new ArrayList<>(names.subList(names.indexOf(node.definition.getName()), names.size()));
+            cycle.add(node.definition.getName());
+            throw new RuntimeException("Circular dependency between beans: " + String.join(" -> ", cycle));
+        }
+        for (Node dependency : node.dependencies) {
+            visit(dependency, visited, path, order);
+        }
+        path.remove(node);
+        visited.add(node);
+        order.add(node);
+    }
+
+    /**
+     * @return 需要创建的Bean的拓扑顺序, 依赖总是排在被依赖者之前
+     */
+    List<BeanDefinition> getCreationOrder() {
+        return order.stream().filter(node -> node.create).map(node -> node.definition).collect(Collectors.toList());
+    }
+
+    /**
+     * 在线程池上执行, 一个Bean的全部依赖执行完成后才会提交该Bean, 阻塞到全部完成.
+     * 任意一个Bean失败后, 尚未开始的Bean不再执行, 第一个异常在调用线程抛出
+     */
+    void execute(Executor executor, Consumer<BeanDefinition> action) {
+        Map<Node, AtomicInteger> remaining = new HashMap<>(order.size() * 2);
+        for (Node node : order) {
+            remaining.put(node, new AtomicInteger(node.dependencies.size()));
+        }
+        CountDownLatch latch = new CountDownLatch(order.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (Node node : order) {
+            if (node.dependencies.isEmpty()){
+                submit(node, executor, action, remaining, latch, failure);
+            }
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while creating beans", e);
+        }
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException){
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error){
+            throw (Error) t;
+        }
+        if (t != null){
+            throw new RuntimeException(t);
+        }
+    }
+
+    private void submit(Node node, Executor executor, Consumer<BeanDefinition> action,
+                        Map<Node, AtomicInteger> remaining, CountDownLatch latch, AtomicReference<Throwable> failure) {
+        executor.execute(() -> {
+            try {
+                if (node.create && failure.get() == null){
+                    action.accept(node.definition);
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                //失败时依然继续调度, 保证latch归零
+                for (Node dependent : node.dependents) {
+                    if (remaining.get(dependent).decrementAndGet() == 0){
+                        submit(dependent, executor, action, remaining, latch, failure);
+                    }
+                }
+                latch.countDown();
+            }
+        });
+    }
+
+    private static class Node {
+
+        private final BeanDefinition definition;
+
+        //false: 只传递依赖关系, 由依赖方创建
+        private final boolean create;
+
+        private final Set<Node> dependencies = new LinkedHashSet<>();
+
+        private final List<Node> dependents = new ArrayList<>();
+
+        Node(BeanDefinition definition, boolean create) {
+            this.definition = definition;
+            this.create = create;
+        }
+    }
+}
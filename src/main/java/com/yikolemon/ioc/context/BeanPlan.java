@@ -0,0 +1,70 @@
+package com.yikolemon.ioc.context;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Value;
+import com.yikolemon.ioc.context.InjectionMetadata.InjectionPoint;
+import com.yikolemon.ioc.util.ClassUtil;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Parameter;
+import java.util.List;
+
+/**
+ * Bean的创建和注入计划: 构造方法/工厂方法参数在第一次创建时解析并校验, 字段/方法注入点来自按类缓存的{@link InjectionMetadata},
+ * 之后每次创建(尤其是prototype等非单例Bean)直接复用, 不再重复查找注解和成员
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+class BeanPlan {
+
+    final Executable createFun;
+
+    final AccessorStrategy.Instantiator instantiator;
+
+    final InjectionPoint[] arguments;
+
+    final List<InjectionPoint> injectionPoints;
+
+    private BeanPlan(Executable createFun, AccessorStrategy.Instantiator instantiator,
+                     InjectionPoint[] arguments, List<InjectionPoint> injectionPoints) {
+        this.createFun = createFun;
+        this.instantiator = instantiator;
+        this.arguments = arguments;
+        this.injectionPoints = injectionPoints;
+    }
+
+    /**
+     * @param preloaded AOT快照中该Bean类的注入点, 为null时按类查找
+     */
+    static BeanPlan build(BeanDefinition def, AccessorStrategy accessorStrategy, List<InjectionPoint> preloaded) {
+        //获取创建Bean的构造方法或者工厂方法
+        Executable createFun = def.getFactoryName() == null ? def.getConstructor() : def.getFactoryMethod();
+        AccessorStrategy.Instantiator instantiator = def.getFactoryName() == null ?
+                accessorStrategy.constructor(def.getConstructor()) : accessorStrategy.factoryMethod(def.getFactoryMethod());
+        Parameter[] parameters = createFun.getParameters();
+        InjectionPoint[] arguments = new InjectionPoint[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Value value = ClassUtil.getAnnotation(parameters[i], Value.class);
+            Autowired autowired = ClassUtil.getAnnotation(parameters[i], Autowired.class);
+            if (def.getConfigurationDefinition() && autowired != null){
+                throw new RuntimeException("cannot specify @Autowired when creating @Configuration Bean");
+            }
+            //参数需要@Value或者@Autowired两者之一
+            if (value != null && autowired != null){
+                throw new RuntimeException("cannot specify both @Autowired and @Value at same time");
+            }
+            if (value == null && autowired == null) {
+                throw new RuntimeException("must specify @Autowired or @Value");
+            }
+            arguments[i] = InjectionPoint.of(null, null, parameters[i].getParameterizedType(), value, autowired, InjectionMetadata.isLazy(parameters[i]));
+        }
+        List<InjectionPoint> injectionPoints;
+        try {
+            injectionPoints = (preloaded != null ? InjectionMetadata.fromPreloaded(preloaded, accessorStrategy)
+                    : InjectionMetadata.forClass(def.getBeanClass(), accessorStrategy)).getInjectionPoints();
+        } catch (RuntimeException e) {
+            throw new RuntimeException(String.format("Invalid injection point for bean '%s': %s", def.getName(), e.getMessage()), e);
+        }
+        return new BeanPlan(createFun, instantiator, arguments, injectionPoints);
+    }
+}
@@ -0,0 +1,36 @@
+package com.yikolemon.ioc.context;
+
+import java.util.function.Supplier;
+
+/**
+ * Bean作用域扩展点, 通过{@link AnnotationConfigApplicationContext#registerScope}注册,
+ * Bean通过@Scope指定作用域名称. singleton和prototype由容器直接处理, 不经过该接口
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public interface BeanScope {
+
+    String SINGLETON = "singleton";
+
+    String PROTOTYPE = "prototype";
+
+    String THREAD = "thread";
+
+    /**
+     * 返回当前作用域内的实例, 不存在时通过objectFactory创建并缓存
+     * @param name Bean名称
+     * @param objectFactory 创建并注入完成的新实例
+     */
+    Object get(String name, Supplier<Object> objectFactory);
+
+    /**
+     * 从当前作用域移除实例, 不执行销毁回调
+     * @return 被移除的实例, 不存在时返回null
+     */
+    Object remove(String name);
+
+    /**
+     * 注册作用域结束时执行的销毁回调
+     */
+    void registerDestructionCallback(String name, Runnable callback);
+}
@@ -0,0 +1,172 @@
+package com.yikolemon.ioc.context;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 按类型查找BeanDefinition的索引, 在容器刷新时一次性构建:
+ * 每个Bean类的所有父类和接口都映射到已排序的候选列表, 并预先解析出@Primary候选.
+ * 构建后不可变, 未出现在索引中的类型直接返回空结果, 按类型查找只需要一次hash查询.
+ * List/Map注入的实例集合也缓存在索引中, 索引重建(热扫描)时一并失效
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+class BeanTypeIndex {
+
+    static final Comparator<BeanDefinition> ORDER_COMPARATOR =
+            Comparator.comparingInt(BeanDefinition::getOrder).thenComparing(BeanDefinition::getName);
+
+    private static final Entry EMPTY = new Entry(Collections.emptyList(), null, null);
+
+    //类型 -> 候选
+    private final Map<Class<?>, Entry> entries;
+
+    private BeanTypeIndex(Map<Class<?>, Entry> entries) {
+        this.entries = entries;
+    }
+
+    static BeanTypeIndex build(Collection<BeanDefinition> definitions) {
+        Map<Class<?>, List<BeanDefinition>> candidates = new HashMap<>();
+        for (BeanDefinition def : definitions) {
+            for (Class<?> type : getAllTypes(def.getBeanClass())) {
+                candidates.computeIfAbsent(type, k -> new ArrayList<>()).add(def);
+            }
+        }
+        Map<Class<?>, Entry> entries = new HashMap<>(candidates.size() * 2);
+        candidates.forEach((type, defs) -> {
+            defs.sort(ORDER_COMPARATOR);
+            entries.put(type, Entry.of(defs));
+        });
+        return new BeanTypeIndex(entries);
+    }
+
+    /**
+     * @return 可以赋值给clazz的全部BeanDefinition, 按@Order和名称排序, 不可修改
+     */
+    List<BeanDefinition> getCandidates(Class<?> clazz) {
+        return getEntry(clazz).candidates;
+    }
+
+    /**
+     * @return 唯一候选或@Primary候选, 没有候选时返回null
+     */
+    BeanDefinition getPrimary(Class<?> clazz) {
+        Entry entry = getEntry(clazz);
+        if (entry.error != null){
+            throw new RuntimeException(entry.error);
+        }
+        return entry.primary;
+    }
+
+    /**
+     * @param instanceResolver 获取(必要时创建)候选的实例
+     * @param shareable        候选的实例是否可以被多个注入点共享, 全部可共享时结果只计算一次
+     * @return 全部候选的实例, 按@Order和名称排序, 不可修改
+     */
+    List<Object> getBeans(Class<?> clazz, Function<BeanDefinition, Object> instanceResolver, Predicate<BeanDefinition> shareable) {
+        Entry entry = getEntry(clazz);
+        List<Object> beans = entry.beans;
+        if (beans != null){
+            return beans;
+        }
+        Object[] instances = new Object[entry.candidates.size()];
+        boolean share = true;
+        for (int i = 0; i < instances.length; i++) {
+            BeanDefinition def = entry.candidates.get(i);
+            instances[i] = instanceResolver.apply(def);
+            share &= shareable.test(def);
+        }
+        beans = Collections.unmodifiableList(Arrays.asList(instances));
+        //并发时可能重复计算, 单例的结果相同
+        if (share && entry != EMPTY){
+            entry.beans = beans;
+        }
+        return beans;
+    }
+
+    /**
+     * @return Bean名称 -> 实例, 顺序与{@link #getBeans}一致, 不可修改
+     */
+    Map<String, Object> getBeanMap(Class<?> clazz, Function<BeanDefinition, Object> instanceResolver, Predicate<BeanDefinition> shareable) {
+        Entry entry = getEntry(clazz);
+        Map<String, Object> beanMap = entry.beanMap;
+        if (beanMap != null){
+            return beanMap;
+        }
+        List<Object> beans = getBeans(clazz, instanceResolver, shareable);
+        Map<String, Object> map = new LinkedHashMap<>((int) (beans.size() / 0.75f) + 1);
+        for (int i = 0; i < beans.size(); i++) {
+            map.put(entry.candidates.get(i).getName(), beans.get(i));
+        }
+        beanMap = Collections.unmodifiableMap(map);
+        //实例列表已缓存说明全部可共享
+        if (beans == entry.beans){
+            entry.beanMap = beanMap;
+        }
+        return beanMap;
+    }
+
+    private Entry getEntry(Class<?> clazz) {
+        Entry entry = entries.get(clazz);
+        return entry == null ? EMPTY : entry;
+    }
+
+    /**
+     * 类自身、所有父类以及直接和间接实现的接口
+     */
+    private static Set<Class<?>> getAllTypes(Class<?> clazz) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(clazz);
+        while (!queue.isEmpty()) {
+            Class<?> type = queue.poll();
+            if (!types.add(type)){
+                continue;
+            }
+            if (type.getSuperclass() != null){
+                queue.add(type.getSuperclass());
+            }
+            queue.addAll(Arrays.asList(type.getInterfaces()));
+        }
+        return types;
+    }
+
+    private static class Entry {
+
+        private final List<BeanDefinition> candidates;
+
+        private final BeanDefinition primary;
+
+        //存在多个候选但无法确定primary时的错误信息, 查询时再抛出
+        private final String error;
+
+        //候选全部可共享时缓存的实例集合
+        private volatile List<Object> beans;
+
+        private volatile Map<String, Object> beanMap;
+
+        Entry(List<BeanDefinition> candidates, BeanDefinition primary, String error) {
+            this.candidates = candidates;
+            this.primary = primary;
+            this.error = error;
+        }
+
+        static Entry of(List<BeanDefinition> defs) {
+            List<BeanDefinition> candidates = Collections.unmodifiableList(defs);
+            if (defs.size() == 1){
+                return new Entry(candidates, defs.get(0), null);
+            }
+            BeanDefinition primary = null;
+            for (BeanDefinition def : defs) {
+                if (Boolean.TRUE.equals(def.getPrimary())){
+                    if (primary != null){
+                        return new Entry(candidates, null, "two many primary beans");
+                    }
+                    primary = def;
+                }
+            }
+            return primary == null ? new Entry(candidates, null, "no primary bean") : new Entry(candidates, primary, null);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.yikolemon.ioc.context;
+
+import com.yikolemon.ioc.context.InjectionMetadata.InjectionPoint;
+import com.yikolemon.ioc.resource.ClassFileStamps;
+import com.yikolemon.ioc.util.ClassUtil;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * AOT快照: 构建期执行扫描和BeanDefinition创建, 把选中的构造方法/工厂方法以及每个Bean类的注入点写入二进制文件
+ * META-INF/yikolemon/{配置类全限定名}.snapshot; 运行期存在快照时容器直接按快照还原BeanDefinition,
+ * 不解析class文件, 也不遍历成员查找注解. 快照中记录了生成时扫描包下每个class文件的大小和内容CRC({@link ClassFileStamps}),
+ * 新增、删除或者修改了扫描包下的类之后快照失效, 退回到扫描. 校验时jar只读取central directory,
+ * 目录只读取文件属性(修改时间变化的文件才读取内容), 都不解析class文件.
+ * <p>
+ * 生成: java com.yikolemon.ioc.context.ContextSnapshot {配置类全限定名} {classes输出目录}
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class ContextSnapshot {
+
+    /**
+     * 设置为true时忽略快照, 始终扫描classpath
+     */
+    public static final String IGNORE_SNAPSHOT_PROPERTY = "yikolemon.snapshot.ignore";
+
+    private static final int VERSION = 5;
+
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class,
+                int.class, long.class, float.class, double.class, void.class}) {
+            PRIMITIVES.put(type.getName(), type);
+        }
+    }
+
+    public static String getLocation(Class<?> configClazz) {
+        return "META-INF/yikolemon/" + configClazz.getName() + ".snapshot";
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2){
+            System.err.println("usage: ContextSnapshot <config class> <classes output directory>");
+            System.exit(1);
+        }
+        Class<?> configClazz = Class.forName(args[0], false, ClassUtil.getDefaultClassLoader());
+        Path file = write(configClazz, Paths.get(args[1]));
+        System.out.println("context snapshot written to " + file);
+    }
+
+    /**
+     * 执行扫描和BeanDefinition创建, 不创建任何Bean
+     * @param outputDir classpath根目录
+     * @return 快照文件
+     */
+    public static Path write(Class<?> configClazz, Path outputDir) throws IOException, NoSuchMethodException {
+        ResourceScanner resourceScanner = new ResourceScanner();
+        Map<String, BeanDefinition> defs = resourceScanner.createBeanDefinitions(resourceScanner.scanForClazzName(configClazz));
+        Path file = outputDir.resolve(getLocation(configClazz));
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            List<String> packages = resourceScanner.getScanPackages(configClazz);
+            out.writeInt(packages.size());
+            for (String pkg : packages) {
+                out.writeUTF(pkg);
+                ClassFileStamps.compute(pkg).write(out);
+            }
+            out.writeInt(defs.size());
+            //按名称排序, 相同输入生成相同文件
+            for (BeanDefinition def : new TreeMap<>(defs).values()) {
+                writeDefinition(out, def);
+            }
+            Set<Class<?>> beanClasses = new LinkedHashSet<>();
+            defs.values().forEach(def -> beanClasses.add(def.getBeanClass()));
+            out.writeInt(beanClasses.size());
+            for (Class<?> beanClass : beanClasses) {
+                out.writeUTF(beanClass.getName());
+                List<InjectionPoint> points = InjectionMetadata.forClass(beanClass, AccessorStrategy.REFLECTION).getInjectionPoints();
+                out.writeInt(points.size());
+                for (InjectionPoint point : points) {
+                    writeInjectionPoint(out, point);
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    /**
+     * @return 按快照还原的BeanDefinition和注入点, 快照不存在、被禁用或者已经过期时返回null
+     */
+    static Restored load(Class<?> configClazz, ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_SNAPSHOT_PROPERTY)){
+            return null;
+        }
+        URL url = classLoader.getResource(getLocation(configClazz));
+        if (url == null){
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(url.openStream()))) {
+            if (in.readInt() != VERSION || !isUpToDate(in, new ResourceScanner().getScanPackages(configClazz))){
+                return null;
+            }
+            int defCount = in.readInt();
+            Map<String, BeanDefinition> defs = new HashMap<>(defCount * 2);
+            for (int i = 0; i < defCount; i++) {
+                BeanDefinition def = readDefinition(in, classLoader);
+                defs.put(def.getName(), def);
+            }
+            int classCount = in.readInt();
+            Map<Class<?>, List<InjectionPoint>> injectionPoints = new HashMap<>(classCount * 2);
+            for (int i = 0; i < classCount; i++) {
+                Class<?> beanClass = loadClass(in.readUTF(), classLoader);
+                int pointCount = in.readInt();
+                List<InjectionPoint> points = new ArrayList<>(pointCount);
+                for (int j = 0; j < pointCount; j++) {
+                    points.add(readInjectionPoint(in, classLoader));
+                }
+                injectionPoints.put(beanClass, points);
+            }
+            return new Restored(defs, injectionPoints);
+        } catch (IOException | ReflectiveOperationException e) {
+            //快照过期(扫描包之外的类或成员已变化), 退回到扫描
+            return null;
+        }
+    }
+
+    /**
+     * 扫描包与生成时一致, 且包下的class文件没有变化
+     */
+    private static boolean isUpToDate(DataInputStream in, List<String> packages) throws IOException {
+        int count = in.readInt();
+        if (count != packages.size()){
+            return false;
+        }
+        for (String pkg : packages) {
+            if (!in.readUTF().equals(pkg) || !ClassFileStamps.read(in).matches(pkg)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按快照还原的结果
+     */
+    static class Restored {
+
+        final Map<String, BeanDefinition> definitions;
+
+        //Bean类 -> 注入点(不含访问器)
+        final Map<Class<?>, List<InjectionPoint>> injectionPoints;
+
+        Restored(Map<String, BeanDefinition> definitions, Map<Class<?>, List<InjectionPoint>> injectionPoints) {
+            this.definitions = definitions;
+            this.injectionPoints = injectionPoints;
+        }
+    }
+
+    private static void writeDefinition(DataOutputStream out, BeanDefinition def) throws IOException {
+        out.writeUTF(def.getName());
+        out.writeUTF(def.getBeanClass().getName());
+        boolean factory = def.getFactoryMethod() != null;
+        out.writeBoolean(factory);
+        if (factory){
+            out.writeUTF(def.getFactoryName());
+            out.writeUTF(def.getFactoryMethod().getDeclaringClass().getName());
+            out.writeUTF(def.getFactoryMethod().getName());
+            writeTypes(out, def.getFactoryMethod().getParameterTypes());
+        }else{
+            writeTypes(out, def.getConstructor().getParameterTypes());
+        }
+        out.writeInt(def.getOrder());
+        out.writeBoolean(def.getPrimary());
+        out.writeByte(def.getLazy() == null ? -1 : def.getLazy() ? 1 : 0);
+        out.writeUTF(def.getScope());
+        out.writeBoolean(def.isRefreshable());
+        writeNullable(out, def.getConfigurationPropertiesPrefix());
+        out.writeBoolean(def.getConfigurationDefinition());
+        writeNullable(out, def.getInitMethod() == null ? null : def.getInitMethod().getName());
+        writeNullable(out, def.getInitMethodName());
+        writeNullable(out, def.getDestoryMethod() == null ? null : def.getDestoryMethod().getName());
+        writeNullable(out, def.getDestroyMethodName());
+    }
+
+    private static BeanDefinition readDefinition(DataInputStream in, ClassLoader classLoader) throws IOException, ReflectiveOperationException {
+        BeanDefinition.BeanDefinitionBuilder builder = BeanDefinition.builder().name(in.readUTF());
+        Class<?> beanClass = loadClass(in.readUTF(), classLoader);
+        builder.beanClass(beanClass);
+        if (in.readBoolean()){
+            builder.factoryName(in.readUTF());
+            Class<?> declaringClass = loadClass(in.readUTF(), classLoader);
+            String methodName = in.readUTF();
+            builder.factoryMethod(declaringClass.getDeclaredMethod(methodName, readTypes(in, classLoader)));
+        }else{
+            builder.constructor(beanClass.getDeclaredConstructor(readTypes(in, classLoader)));
+        }
+        builder.order(in.readInt())
+                .primary(in.readBoolean());
+        byte lazy = in.readByte();
+        builder.lazy(lazy < 0 ? null : lazy == 1)
+                .scope(in.readUTF())
+                .refreshable(in.readBoolean())
+                .configurationPropertiesPrefix(readNullable(in))
+                .configurationDefinition(in.readBoolean());
+        String initMethod = readNullable(in);
+        builder.initMethod(initMethod == null ? null : beanClass.getMethod(initMethod))
+                .initMethodName(readNullable(in));
+        String destroyMethod = readNullable(in);
+        builder.destoryMethod(destroyMethod == null ? null : beanClass.getMethod(destroyMethod))
+                .destroyMethodName(readNullable(in));
+        return builder.build();
+    }
+
+    private static void writeInjectionPoint(DataOutputStream out, InjectionPoint point) throws IOException {
+        Member member = point.member;
+        boolean field = member instanceof Field;
+        out.writeBoolean(field);
+        out.writeUTF(member.getDeclaringClass().getName());
+        out.writeUTF(member.getName());
+        if (!field){
+            writeTypes(out, ((Method) member).getParameterTypes());
+        }
+        writeNullable(out, point.valueExpression);
+        writeNullable(out, point.beanName);
+        out.writeBoolean(point.required);
+        out.writeBoolean(point.lazy);
+    }
+
+    private static InjectionPoint readInjectionPoint(DataInputStream in, ClassLoader classLoader) throws IOException, ReflectiveOperationException {
+        boolean field = in.readBoolean();
+        Class<?> declaringClass = loadClass(in.readUTF(), classLoader);
+        String name = in.readUTF();
+        Member member;
+        Type type;
+        if (field){
+            Field f = declaringClass.getDeclaredField(name);
+            member = f;
+            type = f.getGenericType();
+        }else{
+            Method m = declaringClass.getDeclaredMethod(name, readTypes(in, classLoader));
+            member = m;
+            type = m.getGenericParameterTypes()[0];
+        }
+        return new InjectionPoint(member, null, type, readNullable(in), readNullable(in), in.readBoolean(), in.readBoolean());
+    }
+
+    private static void writeTypes(DataOutputStream out, Class<?>[] types) throws IOException {
+        out.writeShort(types.length);
+        for (Class<?> type : types) {
+            out.writeUTF(type.getName());
+        }
+    }
+
+    private static Class<?>[] readTypes(DataInputStream in, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        Class<?>[] types = new Class<?>[in.readShort()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = loadClass(in.readUTF(), classLoader);
+        }
+        return types;
+    }
+
+    private static Class<?> loadClass(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(name);
+        //不触发静态初始化
+        return primitive != null ? primitive : Class.forName(name, false, classLoader);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null){
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
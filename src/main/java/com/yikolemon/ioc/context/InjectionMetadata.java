@@ -0,0 +1,229 @@
+package com.yikolemon.ioc.context;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Lazy;
+import com.yikolemon.ioc.annotation.Value;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * 一个类(包括父类)的字段/setter注入点, 每个类和访问方式只解析一次,
+ * 同一个类的多个Bean、prototype的每次创建以及多个容器之间共享
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+class InjectionMetadata {
+
+    //保存在Class上, 类被卸载时一并回收
+    private static final Map<AccessorStrategy, ClassValue<InjectionMetadata>> CACHE = new EnumMap<>(AccessorStrategy.class);
+
+    static {
+        for (AccessorStrategy strategy : AccessorStrategy.values()) {
+            CACHE.put(strategy, new ClassValue<InjectionMetadata>() {
+                @Override
+                protected InjectionMetadata computeValue(Class<?> type) {
+                    return build(type, strategy);
+                }
+            });
+        }
+    }
+
+    private final List<InjectionPoint> injectionPoints;
+
+    private InjectionMetadata(List<InjectionPoint> injectionPoints) {
+        this.injectionPoints = injectionPoints;
+    }
+
+    /**
+     * @throws RuntimeException 注入点不合法, 此时不会缓存
+     */
+    static InjectionMetadata forClass(Class<?> clazz, AccessorStrategy accessorStrategy) {
+        return CACHE.get(accessorStrategy).get(clazz);
+    }
+
+    List<InjectionPoint> getInjectionPoints() {
+        return injectionPoints;
+    }
+
+    /**
+     * 使用AOT快照中已解析的注入点(不含访问器), 不再遍历成员和注解, 结果不缓存
+     */
+    static InjectionMetadata fromPreloaded(List<InjectionPoint> preloaded, AccessorStrategy accessorStrategy) {
+        List<InjectionPoint> injectionPoints = new ArrayList<>(preloaded.size());
+        for (InjectionPoint point : preloaded) {
+            injectionPoints.add(point.withInjector(point.member instanceof Field ?
+                    accessorStrategy.field((Field) point.member) : accessorStrategy.setter((Method) point.member)));
+        }
+        return new InjectionMetadata(Collections.unmodifiableList(injectionPoints));
+    }
+
+    private static InjectionMetadata build(Class<?> beanClass, AccessorStrategy accessorStrategy) {
+        List<InjectionPoint> injectionPoints = new ArrayList<>();
+        for (Class<?> clazz = beanClass; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Field f : clazz.getDeclaredFields()) {
+                addInjectionPoint(clazz, f, accessorStrategy, injectionPoints);
+            }
+            for (Method m : clazz.getDeclaredMethods()) {
+                addInjectionPoint(clazz, m, accessorStrategy, injectionPoints);
+            }
+        }
+        return new InjectionMetadata(Collections.unmodifiableList(injectionPoints));
+    }
+
+    private static void addInjectionPoint(Class<?> clazz, AccessibleObject acc,
+                                          AccessorStrategy accessorStrategy, List<InjectionPoint> injectionPoints) {
+        Value valAnno = acc.getAnnotation(Value.class);
+        Autowired autowiredAnno = acc.getAnnotation(Autowired.class);
+        //不需要注入
+        if (valAnno == null && autowiredAnno == null){
+            return;
+        }
+        Member member = (Member) acc;
+        checkFieldOrMethod(member);
+        Type type;
+        AccessorStrategy.Injector injector;
+        if (acc instanceof Field){
+            type = ((Field) acc).getGenericType();
+            injector = accessorStrategy.field((Field) acc);
+        }else{
+            Method m = (Method) acc;
+            if (m.getParameters().length < 1){
+                throw new RuntimeException(String.format("Cannot inject a non-setter method %s of %s",
+                        m.getName(), clazz.getName()));
+            }
+            type = m.getGenericParameterTypes()[0];
+            injector = accessorStrategy.setter(m);
+        }
+        //同时存在两个注解
+        if (valAnno != null && autowiredAnno != null){
+            throw new RuntimeException(String.format("Cannot specify both @Autowired and @Value when inject %s.%s",
+                    clazz.getSimpleName(), member.getName()));
+        }
+        injectionPoints.add(InjectionPoint.of(member, injector, type, valAnno, autowiredAnno, isLazy(acc)));
+    }
+
+    static boolean isLazy(AnnotatedElement injectionPoint){
+        Lazy lazy = injectionPoint.getAnnotation(Lazy.class);
+        return lazy != null && lazy.value();
+    }
+
+    private static void checkFieldOrMethod(Member m){
+        int mod = m.getModifiers();
+        if (Modifier.isStatic(mod)){
+            throw new RuntimeException("cannot inject stastic field" + m);
+        }
+        if (Modifier.isFinal(mod)){
+            if (m instanceof Field){
+                throw new RuntimeException("cannot inject final field" + m);
+            }
+            if (m instanceof Method){
+                System.out.println("inject final method should be careful because it is not called on target bean when bean is proxied and may cause NullPointerException.");
+            }
+        }
+    }
+
+    /**
+     * 一个@Value或者@Autowired注入点, 注解数据和访问器都已解析
+     */
+    static class InjectionPoint {
+
+        //字段或者setter方法, 构造方法/工厂方法参数为null
+        final Member member;
+
+        final AccessorStrategy.Injector injector;
+
+        final Class<?> type;
+
+        //@Value按泛型类型转换, 如List<Integer>
+        final Type genericType;
+
+        //List<T>或Map<String, T>注入时的元素类型T, 注入单个Bean时为null
+        final Class<?> elementType;
+
+        //@Value的表达式, 非@Value注入点为null
+        final String valueExpression;
+
+        //@Autowired指定的Bean名称, 空字符串表示按类型查找
+        final String beanName;
+
+        final boolean required;
+
+        final boolean lazy;
+
+        /**
+         * @param genericType 注入点的泛型类型, 未指定Bean名称的@Autowired List<T>/Map<String, T>按类型注入全部候选
+         */
+        InjectionPoint(Member member, AccessorStrategy.Injector injector, Type genericType,
+                       String valueExpression, String beanName, boolean required, boolean lazy) {
+            this(member, injector, genericType, getRawType(genericType),
+                    valueExpression == null && beanName != null && beanName.isEmpty() ? getElementType(genericType) : null,
+                    valueExpression, beanName, required, lazy);
+        }
+
+        private InjectionPoint(Member member, AccessorStrategy.Injector injector, Type genericType, Class<?> type, Class<?> elementType,
+                               String valueExpression, String beanName, boolean required, boolean lazy) {
+            this.member = member;
+            this.injector = injector;
+            this.genericType = genericType;
+            this.type = type;
+            this.elementType = elementType;
+            this.valueExpression = valueExpression;
+            this.beanName = beanName;
+            this.required = required;
+            this.lazy = lazy;
+        }
+
+        static InjectionPoint of(Member member, AccessorStrategy.Injector injector, Type type,
+                                 Value value, Autowired autowired, boolean lazy) {
+            return new InjectionPoint(member, injector, type, value == null ? null : value.value(),
+                    autowired == null ? null : autowired.name(), autowired == null || autowired.value(), lazy);
+        }
+
+        InjectionPoint withInjector(AccessorStrategy.Injector injector) {
+            return new InjectionPoint(member, injector, genericType, type, elementType, valueExpression, beanName, required, lazy);
+        }
+
+        boolean isValue() {
+            return valueExpression != null;
+        }
+
+        boolean isMultiple() {
+            return elementType != null;
+        }
+
+        private static Class<?> getRawType(Type type) {
+            if (type instanceof Class){
+                return (Class<?>) type;
+            }
+            if (type instanceof ParameterizedType){
+                return (Class<?>) ((ParameterizedType) type).getRawType();
+            }
+            throw new RuntimeException("Cannot inject type variable or wildcard type " + type);
+        }
+
+        /**
+         * @return List<T>或Map<String, T>中的T, T需要是具体的类, 其它类型返回null
+         */
+        private static Class<?> getElementType(Type type) {
+            if (!(type instanceof ParameterizedType)){
+                return null;
+            }
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Type[] args = parameterized.getActualTypeArguments();
+            Type element;
+            if (parameterized.getRawType() == List.class){
+                element = args[0];
+            }else if (parameterized.getRawType() == Map.class && args[0] == String.class){
+                element = args[1];
+            }else{
+                return null;
+            }
+            //List<Handler<?>>按Handler查找
+            if (element instanceof ParameterizedType){
+                element = ((ParameterizedType) element).getRawType();
+            }
+            return element instanceof Class ? (Class<?>) element : null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.yikolemon.ioc.context;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * 标注@Lazy的注入点注入的JDK动态代理, 第一次调用方法时才获取(必要时创建)目标Bean
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+class LazyBeanProxy implements InvocationHandler {
+
+    private final Supplier<Object> targetResolver;
+
+    //为false时每次调用都重新解析, 用于prototype等非单例目标
+    private final boolean cacheTarget;
+
+    private volatile Object target;
+
+    private LazyBeanProxy(Supplier<Object> targetResolver, boolean cacheTarget) {
+        this.targetResolver = targetResolver;
+        this.cacheTarget = cacheTarget;
+    }
+
+    static Object create(Class<?> type, Supplier<Object> targetResolver, boolean cacheTarget) {
+        if (!type.isInterface()){
+            throw new RuntimeException(String.format("@Lazy injection point must be an interface type, but found '%s'", type.getName()));
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new LazyBeanProxy(targetResolver, cacheTarget));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(getTarget(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private Object getTarget() {
+        if (!cacheTarget){
+            return targetResolver.get();
+        }
+        Object t = target;
+        if (t == null){
+            //容器保证目标只创建一次, 这里重复解析也只会拿到同一个实例
+            t = targetResolver.get();
+            target = t;
+        }
+        return t;
+    }
+}
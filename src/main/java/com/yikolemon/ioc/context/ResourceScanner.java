@@ -1,14 +1,19 @@
 package com.yikolemon.ioc.context;
 
 import com.yikolemon.ioc.annotation.*;
-import com.yikolemon.ioc.resource.ClassResourceResolver;
+import com.yikolemon.ioc.index.ComponentIndex;
+import com.yikolemon.ioc.resource.*;
 import com.yikolemon.ioc.util.ClassUtil;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -19,6 +24,28 @@ public class ResourceScanner {
 
     private static final ClassResourceResolver RESOURCE_RESOLVER = new ClassResourceResolver("com.yikolemon");
 
+    private static final ResourceFilter CLASS_FILTER = ResourceFilter.extension(".class");
+
+    /**
+     * class资源名转换为类名
+     */
+    private static final Function<Resource, String> CLASS_NAME_MAPPER = resource -> {
+        String name = resource.getName();
+        return name.substring(0, name.length() - 6)
+                .replace("/", ".")
+                .replace("\\", ".");
+    };
+
+    /**
+     * 组件扫描并行度, 大于1时开启ForkJoin并行扫描, 默认串行
+     */
+    public static final String SCAN_PARALLELISM_PROPERTY = "yikolemon.scan.parallelism";
+
+    private final ClassLoader classLoader = ClassUtil.getDefaultClassLoader();
+
+    //扫描与创建BeanDefinition共用, 同一个类的class文件只解析一次
+    private final ClassMetadataReader metadataReader = new ClassMetadataReader(classLoader);
+
     /**
      *
      * @param configClazz bean配置类
@@ -32,24 +59,105 @@ public class ResourceScanner {
     }
 
     private Set<String> componentScanForName(Class<?> configClazz){
-        List<String> packageList = getScanPackage(configClazz);
+        List<String> packageList = getScanPackages(configClazz);
+        //存在编译期索引的根路径直接读取索引, 其余根路径照常扫描
+        ComponentIndex componentIndex = ComponentIndex.load(classLoader);
+        //所有包共用jar条目缓存, 每个jar只读取一次central directory
+        JarEntryCache jarEntryCache = new JarEntryCache();
+        ScanCache scanCache = ScanCache.load();
+        int parallelism = Integer.getInteger(SCAN_PARALLELISM_PROPERTY, 0);
         HashSet<String> beanNameSet = new HashSet<>();
-        for (String pkg : packageList) {
-            ClassResourceResolver resourceResolver = new ClassResourceResolver(pkg);
-            List<String> beanNameList = resourceResolver.scan(resource -> {
-                String name = resource.getName();
-                if (name.endsWith(".class")) {
-                    return name.substring(0, name.length() - 6)
-                            .replace("/", ".")
-                            .replace("\\", ".");
+        if (parallelism <= 1){
+            for (String pkg : packageList) {
+                ClassResourceResolver resourceResolver = new ClassResourceResolver(pkg, null, jarEntryCache);
+                beanNameSet.addAll(scanPackage(pkg, resourceResolver, componentIndex, scanCache));
+            }
+        }else{
+            //并行扫描: 每个包一个任务, 包内的目录子树/jar条目继续在同一个线程池中拆分
+            ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<List<String>>> tasks = new ArrayList<>(packageList.size());
+                for (String pkg : packageList) {
+                    ClassResourceResolver resourceResolver = new ClassResourceResolver(pkg, forkJoinPool, jarEntryCache);
+                    tasks.add(forkJoinPool.submit(() -> scanPackage(pkg, resourceResolver, componentIndex, scanCache)));
+                }
+                for (ForkJoinTask<List<String>> task : tasks) {
+                    beanNameSet.addAll(task.join());
                 }
-                return null;
-            });
-            beanNameSet.addAll(beanNameList);
+            } finally {
+                forkJoinPool.shutdown();
+            }
+        }
+        if (scanCache != null){
+            scanCache.save();
         }
         return beanNameSet;
     }
 
+    /**
+     * 扫描一个包; 根路径下存在编译期索引时直接读取索引, 否则开启扫描缓存时按根路径查询缓存,
+     * 只有指纹变化的根路径才重新扫描并过滤候选类
+     * @return 索引或缓存命中的根路径为候选类名, 其余根路径为包下全部类名
+     */
+    private List<String> scanPackage(String pkg, ClassResourceResolver resourceResolver,
+                                     ComponentIndex componentIndex, ScanCache scanCache){
+        List<String> res = new ArrayList<>();
+        for (URI root : resourceResolver.getRoots()) {
+            Set<String> indexed = componentIndex == null ? null
+                    : componentIndex.getCandidateTypes(root, pkg, Component.class.getName());
+            if (indexed != null){
+                res.addAll(indexed);
+                continue;
+            }
+            if (scanCache == null){
+                res.addAll(resourceResolver.scan(root, CLASS_FILTER, CLASS_NAME_MAPPER));
+                continue;
+            }
+            String fingerprint = ScanCache.fingerprint(root);
+            List<ClassMetadata> annotated = scanCache.get(root, fingerprint);
+            if (annotated == null){
+                //扫描时直接解析出元数据, 只缓存标注了注解的具体类, 其余返回null被丢弃
+                annotated = resourceResolver.scan(root, CLASS_FILTER, resource -> {
+                    ClassMetadata metadata = metadataReader.getMetadata(CLASS_NAME_MAPPER.apply(resource));
+                    return metadata != null && metadata.isConcrete() && !metadata.isAnnotation()
+                            && !metadata.getAnnotationNames().isEmpty() ? metadata : null;
+                });
+                scanCache.put(root, fingerprint, annotated);
+            }else{
+                //缓存命中, 后续创建BeanDefinition时不再读取class文件
+                annotated.forEach(metadataReader::register);
+            }
+            //元注解可能来自其他根路径, 每次按当前classpath判断是否为候选类
+            for (ClassMetadata metadata : annotated) {
+                if (metadataReader.isCandidate(metadata, Component.class.getName())){
+                    res.add(metadata.getClassName());
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * 去除重复包以及被其他包包含的子包, 如同时存在com.a和com.a.b时只保留com.a
+     * @param packageList 扫描包列表
+     * @return 去重后的包列表
+     */
+    static List<String> deduplicatePackages(List<String> packageList){
+        List<String> sorted = packageList.stream()
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        List<String> res = new ArrayList<>();
+        for (String pkg : sorted) {
+            boolean covered = res.stream()
+                    .anyMatch(parent -> parent.isEmpty() || pkg.startsWith(parent + "."));
+            if (!covered){
+                res.add(pkg);
+            }
+        }
+        return res;
+    }
+
     private Set<String> importScanForName(Class<?> configClazz){
         Import anno = configClazz.getAnnotation(Import.class);
         if (anno == null){
@@ -64,6 +172,14 @@ public class ResourceScanner {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * @param configClazz bean配置类
+     * @return 去重后的组件扫描包
+     */
+    List<String> getScanPackages(Class<?> configClazz){
+        return deduplicatePackages(getScanPackage(configClazz));
+    }
+
     private List<String> getScanPackage(Class<?> configClazz){
         //进行组件扫描
         //查看扫描注解是否存在
@@ -83,18 +199,17 @@ public class ResourceScanner {
     public Map<String, BeanDefinition> createBeanDefinitions(Set<String> classNameSet) throws NoSuchMethodException {
         HashMap<String, BeanDefinition> map = new HashMap<>();
         for (String className : classNameSet) {
-            //获取class
+            //先通过字节码判断class是否标注了Component注解, 只加载候选类
+            if (!metadataReader.isCandidate(className, Component.class.getName())){
+                continue;
+            }
+            //获取class, 不触发静态初始化
             Class<?> clazz = null;
             try {
-                clazz = Class.forName(className);
+                clazz = Class.forName(className, false, classLoader);
             } catch (ClassNotFoundException e) {
                 throw new RuntimeException(e);
             }
-            //判断class是否标注了Component注解
-            Component anno = ClassUtil.getAnnotation(clazz, Component.class);
-            if (anno == null){
-                continue;
-            }
             String beanName = ClassUtil.getBeanName(clazz);
             BeanDefinition beanDefinition = BeanDefinition.builder()
                     .name(beanName)
@@ -102,6 +217,10 @@ public class ResourceScanner {
                     .beanClass(clazz)
                     .order(getOrder(clazz))
                     .primary(clazz.isAnnotationPresent(Primary.class))
+                    .lazy(getLazy(clazz.getAnnotation(Lazy.class)))
+                    .scope(getScope(clazz.getAnnotation(Scope.class)))
+                    .refreshable(isRefreshable(clazz.getAnnotation(Refreshable.class)))
+                    .configurationPropertiesPrefix(getPrefix(clazz.getAnnotation(ConfigurationProperties.class)))
 //                    .instance()
                     .initMethod(ClassUtil.findAnnoMethod(clazz, PostConstruct.class))
                     .initMethodName(null)
@@ -150,6 +269,10 @@ public class ResourceScanner {
                         .factoryName(factoryBeanName)
                         .order(getOrder(method))
                         .primary(method.isAnnotationPresent(Primary.class))
+                        .lazy(getLazy(method.getAnnotation(Lazy.class)))
+                        .scope(getScope(method.getAnnotation(Scope.class)))
+                        .refreshable(isRefreshable(method.getAnnotation(Refreshable.class)))
+                        .configurationPropertiesPrefix(getPrefix(method.getAnnotation(ConfigurationProperties.class)))
                         .initMethod(null)
                         .initMethodName(bean.initMethod().isEmpty() ? null : bean.initMethod())
                         .destoryMethod(null)
@@ -173,6 +296,25 @@ public class ResourceScanner {
         return order == null ? Integer.MAX_VALUE : order.value();
     }
 
+    /**
+     * @return 未标注@Lazy时返回null, 由容器的默认模式决定
+     */
+    Boolean getLazy(Lazy lazy) {
+        return lazy == null ? null : lazy.value();
+    }
+
+    String getScope(Scope scope) {
+        return scope == null ? BeanScope.SINGLETON : scope.value();
+    }
+
+    boolean isRefreshable(Refreshable refreshable) {
+        return refreshable != null && refreshable.value();
+    }
+
+    String getPrefix(ConfigurationProperties configurationProperties) {
+        return configurationProperties == null ? null : configurationProperties.prefix();
+    }
+
     int getOrder(Method method) {
         Order order = method.getAnnotation(Order.class);
         return order == null ? Integer.MAX_VALUE : order.value();
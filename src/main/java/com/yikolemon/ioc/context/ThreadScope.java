@@ -0,0 +1,63 @@
+package com.yikolemon.ioc.context;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 线程作用域, 实例缓存在ThreadLocal中, 同一线程内查找不需要加锁.
+ * 线程池等线程会被复用的场景需要在一次任务(例如一个请求)结束时调用{@link #end()},
+ * 因此同一个类也可以注册为请求作用域
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class ThreadScope implements BeanScope {
+
+    private static final Logger LOGGER = Logger.getLogger(ThreadScope.class.getName());
+
+    private final ThreadLocal<Map<String, Object>> instances = ThreadLocal.withInitial(HashMap::new);
+
+    private final ThreadLocal<Map<String, Runnable>> destructionCallbacks = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    @Override
+    public Object get(String name, Supplier<Object> objectFactory) {
+        Map<String, Object> scoped = instances.get();
+        Object instance = scoped.get(name);
+        if (instance == null){
+            //创建时可能递归获取同一作用域的其他Bean, 不能使用computeIfAbsent
+            instance = objectFactory.get();
+            scoped.put(name, instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public Object remove(String name) {
+        destructionCallbacks.get().remove(name);
+        return instances.get().remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        destructionCallbacks.get().put(name, callback);
+    }
+
+    /**
+     * 结束当前线程的作用域: 执行销毁回调并清空缓存
+     */
+    public void end() {
+        Map<String, Runnable> callbacks = destructionCallbacks.get();
+        destructionCallbacks.remove();
+        instances.remove();
+        for (Runnable callback : callbacks.values()) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "destruction callback failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.yikolemon.ioc.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * 编译期生成的组件索引, 由{@link ComponentIndexProcessor}写入 META-INF/yikolemon.components,
+ * 格式为 类全限定名=注解全限定名(逗号分隔)
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class ComponentIndex {
+
+    public static final String INDEX_LOCATION = "META-INF/yikolemon.components";
+
+    /**
+     * 设置为true时忽略索引, 始终扫描classpath
+     */
+    public static final String IGNORE_INDEX_PROPERTY = "yikolemon.index.ignore";
+
+    //classpath根路径 -> (类全限定名 -> 标注的注解)
+    private final Map<String, Map<String, Set<String>>> entries;
+
+    private ComponentIndex(Map<String, Map<String, Set<String>>> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 读取classpath下全部索引文件, 每个索引文件只对所在的classpath根路径生效
+     * @param classLoader 类加载器
+     * @return 索引, 不存在索引文件或者被禁用时返回null
+     */
+    public static ComponentIndex load(ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_INDEX_PROPERTY)){
+            return null;
+        }
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+            if (!urls.hasMoreElements()){
+                return null;
+            }
+            Map<String, Map<String, Set<String>>> entries = new HashMap<>();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                String location = url.toURI().toString();
+                String root = location.substring(0, location.length() - INDEX_LOCATION.length());
+                Map<String, Set<String>> rootEntries = entries.computeIfAbsent(root, k -> new HashMap<>());
+                Properties properties = new Properties();
+                try (InputStream in = url.openStream()) {
+                    properties.load(in);
+                }
+                for (String className : properties.stringPropertyNames()) {
+                    Set<String> annotationNames = rootEntries.computeIfAbsent(className, k -> new HashSet<>());
+                    annotationNames.addAll(Arrays.asList(properties.getProperty(className).split(",")));
+                }
+            }
+            return new ComponentIndex(entries);
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException("cannot load component index", e);
+        }
+    }
+
+    /**
+     * 查询包(包括子包)在某个根路径下标注了目标注解的类
+     * @param packageRoot 包所在的目录或jar路径, 即{@code ClassResourceResolver#getRoots()}返回的根路径
+     * @param basePackage 包名
+     * @param annotationName 注解全限定名
+     * @return 类全限定名集合, 根路径下不存在索引文件时返回null, 需要扫描
+     */
+    public Set<String> getCandidateTypes(URI packageRoot, String basePackage, String annotationName) {
+        Map<String, Set<String>> rootEntries = entries.get(classpathRoot(packageRoot, basePackage));
+        if (rootEntries == null){
+            return null;
+        }
+        String prefix = basePackage.isEmpty() ? "" : basePackage + ".";
+        Set<String> res = new HashSet<>();
+        rootEntries.forEach((className, annotationNames) -> {
+            if (className.startsWith(prefix) && annotationNames.contains(annotationName)){
+                res.add(className);
+            }
+        });
+        return res;
+    }
+
+    /**
+     * 去掉包路径, 如 file:/app/classes/com/a/ -> file:/app/classes/
+     */
+    private static String classpathRoot(URI packageRoot, String basePackage) {
+        String path = packageRoot.toString();
+        if (path.endsWith("/")){
+            path = path.substring(0, path.length() - 1);
+        }
+        String packagePath = basePackage.replace('.', '/');
+        if (packagePath.isEmpty()){
+            return path + "/";
+        }
+        if (!path.endsWith("/" + packagePath)){
+            return null;
+        }
+        return path.substring(0, path.length() - packagePath.length());
+    }
+}
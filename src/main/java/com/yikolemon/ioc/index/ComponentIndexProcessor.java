@@ -0,0 +1,138 @@
+package com.yikolemon.ioc.index;
+
+import com.yikolemon.ioc.annotation.Component;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * 编译期扫描@Component(包括@Configuration等元注解方式)标注的类, 生成{@link ComponentIndex}索引文件.
+ * 增量编译时与已有的索引文件合并. 需要通过 javac -processor com.yikolemon.ioc.index.ComponentIndexProcessor 或maven annotationProcessors显式启用
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    private static final String COMPONENT = Component.class.getName();
+
+    //类全限定名 -> 标注的注解
+    private final Map<String, Set<String>> entries = new TreeMap<>();
+
+    //本次编译处理过的类, 已有索引中这些类的条目以本次结果为准
+    private final Set<String> processed = new HashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        if (roundEnv.processingOver() && !processed.isEmpty()){
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (!(element instanceof TypeElement)){
+            return;
+        }
+        TypeElement typeElement = (TypeElement) element;
+        //只有可实例化的具体类才能成为组件
+        String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+        processed.add(className);
+        if (typeElement.getKind() == ElementKind.CLASS && !typeElement.getModifiers().contains(Modifier.ABSTRACT)){
+            for (AnnotationMirror mirror : typeElement.getAnnotationMirrors()) {
+                String name = annotationName(mirror);
+                if (name.equals(COMPONENT) || isMetaAnnotated(mirror, new HashSet<>())){
+                    entries.put(className, Collections.singleton(COMPONENT));
+                    break;
+                }
+            }
+        }
+        //内部类
+        for (Element enclosed : typeElement.getEnclosedElements()) {
+            collect(enclosed);
+        }
+    }
+
+    /**
+     * 注解是否通过元注解标注了@Component
+     */
+    private boolean isMetaAnnotated(AnnotationMirror mirror, Set<String> visiting) {
+        String name = annotationName(mirror);
+        //忽略jdk内部注解, 同时防止注解之间互相标注导致的死循环
+        if (name.startsWith("java") || !visiting.add(name)){
+            return false;
+        }
+        for (AnnotationMirror meta : mirror.getAnnotationType().asElement().getAnnotationMirrors()) {
+            if (annotationName(meta).equals(COMPONENT) || isMetaAnnotated(meta, visiting)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String annotationName(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private void writeIndex() {
+        Properties properties = readExistingIndex();
+        properties.keySet().removeIf(className -> processed.contains(className) || !exists((String) className));
+        entries.forEach((className, annotationNames) -> properties.setProperty(className, String.join(",", annotationNames)));
+        if (properties.isEmpty()){
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_LOCATION);
+            try (OutputStream out = file.openOutputStream()) {
+                properties.store(out, null);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("cannot write component index", e);
+        }
+    }
+
+    /**
+     * 读取上次编译生成的索引文件, 不存在时返回空
+     */
+    private Properties readExistingIndex() {
+        Properties properties = new Properties();
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_LOCATION);
+            try (InputStream in = file.openInputStream()) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            //首次编译, 索引文件不存在
+        }
+        return properties;
+    }
+
+    /**
+     * 未参与本次编译的类是否仍然存在, 已删除的类从索引中移除
+     */
+    private boolean exists(String className) {
+        return processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null;
+    }
+}
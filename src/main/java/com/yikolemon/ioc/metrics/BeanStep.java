@@ -0,0 +1,25 @@
+package com.yikolemon.ioc.metrics;
+
+/**
+ * 单个Bean创建过程中的步骤
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public enum BeanStep {
+
+    /**
+     * 解析构造方法/工厂方法参数, 包含创建尚未实例化的依赖Bean
+     */
+    DEPENDENCY_RESOLUTION,
+
+    /**
+     * 调用构造方法或工厂方法
+     */
+    INSTANTIATION,
+
+    /**
+     * 字段和setter方法注入
+     */
+    INJECTION
+
+}
@@ -0,0 +1,24 @@
+package com.yikolemon.ioc.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Bean创建步骤JFR事件
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@Name("com.yikolemon.ioc.BeanStep")
+@Label("Bean Step")
+@Category({"implement-spring", "IoC"})
+class BeanStepEvent extends Event {
+
+    @Label("Bean Name")
+    String beanName;
+
+    @Label("Step")
+    String step;
+
+}
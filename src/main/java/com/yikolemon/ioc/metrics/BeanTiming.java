@@ -0,0 +1,48 @@
+package com.yikolemon.ioc.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 单个Bean各步骤的耗时, 单位纳秒
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class BeanTiming {
+
+    private final String beanName;
+
+    private final AtomicLongArray stepNanos = new AtomicLongArray(BeanStep.values().length);
+
+    BeanTiming(String beanName) {
+        this.beanName = beanName;
+    }
+
+    void add(BeanStep step, long nanos) {
+        stepNanos.addAndGet(step.ordinal(), nanos);
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public long getNanos(BeanStep step) {
+        return stepNanos.get(step.ordinal());
+    }
+
+    /**
+     * 实例化与注入的耗时之和; 依赖解析包含依赖Bean的创建时间, 不计入
+     */
+    public long getOwnNanos() {
+        return getNanos(BeanStep.INSTANTIATION) + getNanos(BeanStep.INJECTION);
+    }
+
+    public Map<BeanStep, Long> getStepNanos() {
+        Map<BeanStep, Long> res = new EnumMap<>(BeanStep.class);
+        for (BeanStep step : BeanStep.values()) {
+            res.put(step, getNanos(step));
+        }
+        return res;
+    }
+}
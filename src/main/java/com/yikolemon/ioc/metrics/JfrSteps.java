@@ -0,0 +1,33 @@
+package com.yikolemon.ioc.metrics;
+
+/**
+ * 所有对jdk.jfr的引用都集中在这里, 没有JFR的JVM上只要不调用就不会加载
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+class JfrSteps {
+
+    private JfrSteps() {
+    }
+
+    static Runnable phase(String phase) {
+        StartupPhaseEvent event = new StartupPhaseEvent();
+        if (!event.isEnabled()){
+            return null;
+        }
+        event.phase = phase;
+        event.begin();
+        return event::commit;
+    }
+
+    static Runnable beanStep(String beanName, BeanStep step) {
+        BeanStepEvent event = new BeanStepEvent();
+        if (!event.isEnabled()){
+            return null;
+        }
+        event.beanName = beanName;
+        event.step = step.name();
+        event.begin();
+        return event::commit;
+    }
+}
@@ -0,0 +1,142 @@
+package com.yikolemon.ioc.metrics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 容器启动耗时统计: 阶段耗时和每个Bean各步骤的耗时, 同时作为JFR事件提交.
+ * 未开启时所有方法直接返回{@link StartupStep#NOOP}, 不读取时钟也不分配对象
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class StartupMetrics {
+
+    /**
+     * 设置为true时开启启动耗时统计
+     */
+    public static final String ENABLED_PROPERTY = "yikolemon.startup.metrics";
+
+    public static final StartupMetrics DISABLED = new StartupMetrics(false);
+
+    private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+    private final boolean enabled;
+
+    //阶段 -> 耗时, 保持阶段执行顺序
+    private final Map<String, Long> phaseNanos = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final Map<String, BeanTiming> beanTimings = new ConcurrentHashMap<>();
+
+    private StartupMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return 根据系统属性创建, 未开启时返回{@link #DISABLED}
+     */
+    public static StartupMetrics create() {
+        return Boolean.getBoolean(ENABLED_PROPERTY) ? new StartupMetrics(true) : DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开始一个启动阶段, 如classpath扫描
+     */
+    public StartupStep phase(String phase) {
+        if (!enabled){
+            return StartupStep.NOOP;
+        }
+        Runnable jfr = JFR_AVAILABLE ? JfrSteps.phase(phase) : null;
+        return new TimedStep(jfr, nanos -> phaseNanos.merge(phase, nanos, Long::sum));
+    }
+
+    /**
+     * 开始一个Bean的创建步骤
+     */
+    public StartupStep beanStep(String beanName, BeanStep step) {
+        if (!enabled){
+            return StartupStep.NOOP;
+        }
+        Runnable jfr = JFR_AVAILABLE ? JfrSteps.beanStep(beanName, step) : null;
+        return new TimedStep(jfr, nanos -> beanTimings.computeIfAbsent(beanName, BeanTiming::new).add(step, nanos));
+    }
+
+    public Map<String, Long> getPhaseNanos() {
+        synchronized (phaseNanos) {
+            return new LinkedHashMap<>(phaseNanos);
+        }
+    }
+
+    public Collection<BeanTiming> getBeanTimings() {
+        return Collections.unmodifiableCollection(beanTimings.values());
+    }
+
+    /**
+     * @param limit 数量
+     * @return 自身耗时(实例化+注入)最长的Bean
+     */
+    public List<BeanTiming> getSlowestBeans(int limit) {
+        return beanTimings.values().stream()
+                .sorted(Comparator.comparingLong(BeanTiming::getOwnNanos).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param limit 列出的最慢Bean数量
+     * @return 可读的统计摘要
+     */
+    public String summary(int limit) {
+        if (!enabled){
+            return "startup metrics disabled, set -D" + ENABLED_PROPERTY + "=true";
+        }
+        StringBuilder sb = new StringBuilder("startup phases:\n");
+        getPhaseNanos().forEach((phase, nanos) ->
+                sb.append(String.format("  %-24s %10.3f ms%n", phase, nanos / 1e6)));
+        sb.append("slowest beans (").append(beanTimings.size()).append(" total):\n");
+        for (BeanTiming timing : getSlowestBeans(limit)) {
+            sb.append(String.format("  %-32s own %10.3f ms, resolve %10.3f ms, instantiate %10.3f ms, inject %10.3f ms%n",
+                    timing.getBeanName(), timing.getOwnNanos() / 1e6,
+                    timing.getNanos(BeanStep.DEPENDENCY_RESOLUTION) / 1e6,
+                    timing.getNanos(BeanStep.INSTANTIATION) / 1e6,
+                    timing.getNanos(BeanStep.INJECTION) / 1e6));
+        }
+        return sb.toString();
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, StartupMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static class TimedStep implements StartupStep {
+
+        private final long start = System.nanoTime();
+
+        private final Runnable jfrCommit;
+
+        private final Consumer<Long> recorder;
+
+        TimedStep(Runnable jfrCommit, Consumer<Long> recorder) {
+            this.jfrCommit = jfrCommit;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void end() {
+            recorder.accept(System.nanoTime() - start);
+            if (jfrCommit != null){
+                jfrCommit.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.yikolemon.ioc.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 容器启动阶段JFR事件
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@Name("com.yikolemon.ioc.StartupPhase")
+@Label("Startup Phase")
+@Category({"implement-spring", "IoC"})
+class StartupPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+}
@@ -0,0 +1,16 @@
+package com.yikolemon.ioc.metrics;
+
+/**
+ * 一个计时步骤, 由{@link StartupMetrics}创建, 结束时调用{@link #end()}
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public interface StartupStep {
+
+    /**
+     * 关闭统计时使用的空步骤
+     */
+    StartupStep NOOP = () -> {};
+
+    void end();
+}
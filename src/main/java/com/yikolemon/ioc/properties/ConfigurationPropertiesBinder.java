@@ -0,0 +1,262 @@
+package com.yikolemon.ioc.properties;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Value;
+import com.yikolemon.ioc.properties.PropertyIndex.PropertyNode;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * 把配置树绑定到对象的字段上. 每个类的可绑定字段(规范化名称 -> 字段和setter)只解析一次,
+ * 绑定时遍历配置树的子节点查找字段, 没有对应字段的配置项被忽略
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+final class ConfigurationPropertiesBinder {
+
+    //保存在Class上, 类被卸载时一并回收
+    private static final ClassValue<Map<String, BindableProperty>> PROPERTIES = new ClassValue<Map<String, BindableProperty>>() {
+        @Override
+        protected Map<String, BindableProperty> computeValue(Class<?> type) {
+            return findProperties(type);
+        }
+    };
+
+    private final TypeConverter typeConverter;
+
+    private final ValueResolver valueResolver;
+
+    ConfigurationPropertiesBinder(TypeConverter typeConverter, ValueResolver valueResolver) {
+        this.typeConverter = typeConverter;
+        this.valueResolver = valueResolver;
+    }
+
+    void bind(Object target, PropertyNode node) throws ValueInjectException {
+        bindBean(target, node, node.name);
+    }
+
+    private void bindBean(Object target, PropertyNode node, String path) throws ValueInjectException {
+        Map<String, BindableProperty> properties = PROPERTIES.get(target.getClass());
+        for (Map.Entry<String, PropertyNode> entry : node.children.entrySet()) {
+            BindableProperty property = properties.get(entry.getKey());
+            if (property == null){
+                continue;
+            }
+            PropertyNode child = entry.getValue();
+            String childPath = path.isEmpty() ? child.name : path + "." + child.name;
+            try {
+                Object value = bindValue(property.type, child, childPath, property.get(target));
+                if (value != null){
+                    property.set(target, value);
+                }
+            } catch (ValueInjectException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(String.format("Cannot bind property '%s' to %s", childPath, property.field), e);
+            }
+        }
+    }
+
+    /**
+     * @param existing 字段的当前值, 嵌套对象已经存在时在其上继续绑定
+     * @return 绑定结果, 节点中没有可以绑定的配置时返回null
+     */
+    private Object bindValue(Type type, PropertyNode node, String path, Object existing) throws Exception {
+        Class<?> raw = getRawType(type);
+        if (raw.isArray() || raw == List.class || raw == Collection.class || raw == Set.class){
+            if (node.children.isEmpty()){
+                //逗号分隔
+                return node.value == null ? null : typeConverter.get(type).apply(valueResolver.resolve(node.value));
+            }
+            Type elementType = raw.isArray() ? raw.getComponentType() : getTypeArgument(type, 0);
+            List<Object> elements = bindElements(elementType, node, path);
+            if (raw.isArray()){
+                Object array = Array.newInstance(raw.getComponentType(), elements.size());
+                for (int i = 0; i < elements.size(); i++) {
+                    Array.set(array, i, elements.get(i));
+                }
+                return array;
+            }
+            return raw == Set.class ? new LinkedHashSet<>(elements) : elements;
+        }
+        if (raw == Map.class){
+            Type valueType = getTypeArgument(type, 1);
+            Map<String, Object> map = new LinkedHashMap<>();
+            if (existing != null){
+                //保留字段的默认内容
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) existing).entrySet()) {
+                    map.put(String.valueOf(entry.getKey()), entry.getValue());
+                }
+            }
+            for (PropertyNode child : node.children.values()) {
+                bindMapEntry(map, valueType, child, child.name, path);
+            }
+            return map;
+        }
+        if (node.value != null && node.children.isEmpty()){
+            return typeConverter.get(type).apply(valueResolver.resolve(node.value));
+        }
+        if (node.children.isEmpty()){
+            return null;
+        }
+        //嵌套对象
+        Object target = existing != null ? existing : newInstance(raw);
+        bindBean(target, node, path);
+        return target;
+    }
+
+    /**
+     * servers[0], servers[1] ... 按下标排序
+     */
+    private List<Object> bindElements(Type elementType, PropertyNode node, String path) throws Exception {
+        TreeMap<Integer, PropertyNode> indexed = new TreeMap<>();
+        for (PropertyNode child : node.children.values()) {
+            try {
+                indexed.put(Integer.parseInt(child.name), child);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format("Invalid index '%s' of property '%s'", child.name, path));
+            }
+        }
+        List<Object> elements = new ArrayList<>(indexed.size());
+        for (Map.Entry<Integer, PropertyNode> entry : indexed.entrySet()) {
+            elements.add(bindValue(elementType, entry.getValue(), path + "[" + entry.getKey() + "]", null));
+        }
+        return elements;
+    }
+
+    /**
+     * 值为简单类型时, 多级配置名合并为一个key, 如 labels.a.b=1 绑定为 {"a.b": 1}
+     */
+    private void bindMapEntry(Map<String, Object> map, Type valueType, PropertyNode node, String key, String path) throws Exception {
+        String entryPath = path + "." + key;
+        if (isScalar(valueType)){
+            Object value = node.value == null && !node.children.isEmpty() ? null : bindValue(valueType, node, entryPath, null);
+            if (value != null){
+                map.put(key, value);
+            }
+            for (PropertyNode child : node.children.values()) {
+                bindMapEntry(map, valueType, child, key + "." + child.name, path);
+            }
+            return;
+        }
+        Object value = bindValue(valueType, node, entryPath, map.get(key));
+        if (value != null){
+            map.put(key, value);
+        }
+    }
+
+    private static boolean isScalar(Type type) {
+        Class<?> raw = getRawType(type);
+        return !raw.isArray() && raw != List.class && raw != Collection.class && raw != Set.class && raw != Map.class && !isBean(type);
+    }
+
+    /**
+     * 需要按字段绑定的类型: 不是JDK类型、数组、集合、枚举
+     */
+    private static boolean isBean(Type type) {
+        Class<?> raw = getRawType(type);
+        return !raw.isPrimitive() && !raw.isArray() && !raw.isEnum() && !raw.isInterface()
+                && !raw.getName().startsWith("java.") && !raw.getName().startsWith("javax.");
+    }
+
+    private static Object newInstance(Class<?> clazz) throws ReflectiveOperationException {
+        Constructor<?> constructor = clazz.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor.newInstance();
+    }
+
+    private static Class<?> getRawType(Type type) {
+        if (type instanceof Class){
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType){
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        throw new IllegalArgumentException("Unsupported property type: " + type.getTypeName());
+    }
+
+    /**
+     * 没有泛型参数时按String处理
+     */
+    private static Type getTypeArgument(Type type, int index) {
+        return type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[index] : String.class;
+    }
+
+    /**
+     * 类(包括父类)中非static、非final的字段, 存在public setter时通过setter设置.
+     * 字段或setter标注了@Autowired/@Value时由容器注入, 不参与绑定
+     */
+    private static Map<String, BindableProperty> findProperties(Class<?> type) {
+        Map<String, BindableProperty> properties = new HashMap<>();
+        Set<String> names = new HashSet<>();
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                int mod = field.getModifiers();
+                if (Modifier.isStatic(mod) || Modifier.isFinal(mod) || field.isSynthetic()){
+                    continue;
+                }
+                //子类字段优先
+                if (!names.add(PropertyIndex.canonical(field.getName()))){
+                    continue;
+                }
+                Method setter = findSetter(type, field);
+                if (isInjected(field) || (setter != null && isInjected(setter))){
+                    continue;
+                }
+                properties.put(PropertyIndex.canonical(field.getName()), new BindableProperty(field, setter));
+            }
+        }
+        return Collections.unmodifiableMap(properties);
+    }
+
+    private static boolean isInjected(AnnotatedElement element) {
+        return element.isAnnotationPresent(Autowired.class) || element.isAnnotationPresent(Value.class);
+    }
+
+    private static Method findSetter(Class<?> type, Field field) {
+        String name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        try {
+            return type.getMethod(name, field.getType());
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static final class BindableProperty {
+
+        private final Field field;
+
+        private final Method setter;
+
+        private final Type type;
+
+        BindableProperty(Field field, Method setter) {
+            field.setAccessible(true);
+            this.field = field;
+            this.setter = setter;
+            this.type = field.getGenericType();
+        }
+
+        Object get(Object target) throws IllegalAccessException {
+            return field.get(target);
+        }
+
+        void set(Object target, Object value) throws IllegalAccessException, InvocationTargetException {
+            if (setter != null){
+                setter.invoke(target, value);
+            }else{
+                field.set(target, value);
+            }
+        }
+    }
+
+    /**
+     * 解析配置值中的占位符
+     */
+    @FunctionalInterface
+    interface ValueResolver {
+
+        String resolve(String value) throws ValueInjectException;
+    }
+}
@@ -0,0 +1,72 @@
+package com.yikolemon.ioc.properties;
+
+import java.util.Locale;
+
+/**
+ * 数据大小, 配置格式为数字加单位: 512B, 64KB, 10MB, 1GB, 2TB, 没有单位时按字节计算, 单位按1024换算
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public final class DataSize implements Comparable<DataSize> {
+
+    private static final String[] UNITS = {"TB", "GB", "MB", "KB", "B"};
+
+    private static final long[] UNIT_BYTES = {1L << 40, 1L << 30, 1L << 20, 1L << 10, 1L};
+
+    private final long bytes;
+
+    private DataSize(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize parse(String text) {
+        String value = text.trim().toUpperCase(Locale.ROOT);
+        for (int i = 0; i < UNITS.length; i++) {
+            if (value.endsWith(UNITS[i])){
+                long amount = Long.parseLong(value.substring(0, value.length() - UNITS[i].length()).trim());
+                return new DataSize(Math.multiplyExact(amount, UNIT_BYTES[i]));
+            }
+        }
+        return new DataSize(Long.parseLong(value));
+    }
+
+    public long toBytes() {
+        return bytes;
+    }
+
+    public long toKilobytes() {
+        return bytes / UNIT_BYTES[3];
+    }
+
+    public long toMegabytes() {
+        return bytes / UNIT_BYTES[2];
+    }
+
+    public long toGigabytes() {
+        return bytes / UNIT_BYTES[1];
+    }
+
+    @Override
+    public int compareTo(DataSize o) {
+        return Long.compare(bytes, o.bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DataSize && ((DataSize) o).bytes == bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return bytes + "B";
+    }
+}
@@ -0,0 +1,104 @@
+package com.yikolemon.ioc.properties;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * 监听配置文件所在目录, 配置文件被创建、修改或删除后回调, 只支持文件系统中的配置文件
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+class PropertyFileWatcher implements Closeable {
+
+    /**
+     * 收到事件后等待该时间内没有新事件再回调, 避免编辑器分多次写文件时读到不完整的内容
+     */
+    private static final long QUIET_PERIOD_MILLIS = 300;
+
+    private static final Logger LOGGER = Logger.getLogger(PropertyFileWatcher.class.getName());
+
+    private final WatchService watchService;
+
+    //WatchKey -> 该目录下监听的文件名
+    private final Map<WatchKey, Set<Path>> watchedFiles = new HashMap<>();
+
+    private final Runnable listener;
+
+    private Thread watchThread;
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param listener 变化回调, 在监听线程上执行
+     */
+    PropertyFileWatcher(Collection<Path> files, Runnable listener) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.listener = listener;
+        Map<Path, Set<Path>> dirs = new HashMap<>();
+        for (Path file : files) {
+            dirs.computeIfAbsent(file.getParent(), k -> new HashSet<>()).add(file.getFileName());
+        }
+        for (Map.Entry<Path, Set<Path>> entry : dirs.entrySet()) {
+            WatchKey key = entry.getKey().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            watchedFiles.put(key, entry.getValue());
+        }
+    }
+
+    /**
+     * 启动守护线程监听
+     */
+    synchronized void start() {
+        if (watchThread != null){
+            return;
+        }
+        watchThread = new Thread(this::watchLoop, "property-file-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+    }
+
+    private void watchLoop() {
+        boolean pending = false;
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = !pending ? watchService.take()
+                        : watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (key == null){
+                //静默期内没有新事件
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "property file listener failed", e);
+                }
+                pending = false;
+                continue;
+            }
+            Set<Path> fileNames = watchedFiles.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                //OVERFLOW时无法确定文件是否变化, 按变化处理
+                if (event.kind() == OVERFLOW || (fileNames != null && fileNames.contains((Path) event.context()))){
+                    pending = true;
+                }
+            }
+            if (!key.reset()){
+                watchedFiles.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.yikolemon.ioc.properties;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按规范化配置名排序的配置索引, 用于@ConfigurationProperties按前缀取出子树, 取子树的开销只与子树大小相关.
+ * 规范化: 忽略大小写、- 和 _, servers[0] 等价于 servers.0.
+ * 多个配置项规范化后同名(如 a-b, a_b, ab)时取优先级最高的来源, 最高优先级中仍有多个时绑定该前缀失败
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+final class PropertyIndex {
+
+    //构建索引的配置快照
+    final Map<String, String> source;
+
+    //规范化配置名 -> {原始配置名(方括号转换为点), 配置值}
+    private final NavigableMap<String, String[]> entries = new TreeMap<>();
+
+    //规范化配置名 -> 优先级相同而无法取舍的原始配置名
+    private final NavigableMap<String, List<String>> conflicts = new TreeMap<>();
+
+    //前缀 -> 配置树, 同一个快照下多次绑定(如prototype Bean)直接复用
+    private final Map<String, PropertyNode> trees = new ConcurrentHashMap<>();
+
+    /**
+     * @param precedence 配置项所在来源的优先级, 越大越高
+     */
+    PropertyIndex(Map<String, String> source, ToIntFunction<String> precedence) {
+        this.source = source;
+        Map<String, List<String>> keysByName = new HashMap<>();
+        for (String key : source.keySet()) {
+            keysByName.computeIfAbsent(canonical(key), k -> new ArrayList<>(1)).add(key);
+        }
+        keysByName.forEach((name, keys) -> {
+            if (keys.size() > 1){
+                int highest = keys.stream().mapToInt(precedence).max().getAsInt();
+                keys.removeIf(key -> precedence.applyAsInt(key) < highest);
+                if (keys.size() > 1){
+                    Collections.sort(keys);
+                    conflicts.put(name, keys);
+                    return;
+                }
+            }
+            String key = keys.get(0);
+            entries.put(name, new String[]{normalize(key), source.get(key)});
+        });
+    }
+
+    /**
+     * @param prefix 为空字符串时返回全部配置
+     * @return 前缀下的配置树, 不包含前缀本身对应的配置项, 只读
+     */
+    PropertyNode getTree(String prefix) {
+        PropertyNode tree = trees.get(prefix);
+        if (tree == null){
+            tree = buildTree(prefix);
+            trees.put(prefix, tree);
+        }
+        return tree;
+    }
+
+    private PropertyNode buildTree(String prefix) {
+        String canonicalPrefix = canonical(prefix);
+        SortedMap<String, List<String>> conflicting = canonicalPrefix.isEmpty() ? conflicts
+                : conflicts.subMap(canonicalPrefix + ".", canonicalPrefix + "/");
+        if (!conflicting.isEmpty()){
+            throw new IllegalStateException(String.format("Properties %s map to the same name in one property source",
+                    conflicting.values().iterator().next()));
+        }
+        SortedMap<String, String[]> subtree = canonicalPrefix.isEmpty() ? entries
+                //'/'是'.'的下一个字符
+                : entries.subMap(canonicalPrefix + ".", canonicalPrefix + "/");
+        int prefixSegments = canonicalPrefix.isEmpty() ? 0 : canonicalPrefix.split("\\.", -1).length;
+        PropertyNode root = new PropertyNode(prefix);
+        subtree.forEach((key, entry) -> {
+            String[] canonicalSegments = key.split("\\.", -1);
+            String[] originalSegments = entry[0].split("\\.", -1);
+            PropertyNode node = root;
+            for (int i = prefixSegments; i < canonicalSegments.length; i++) {
+                node = node.child(canonicalSegments[i], originalSegments[i]);
+            }
+            node.value = entry[1];
+        });
+        return root;
+    }
+
+    static String canonical(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '['){
+                sb.append('.');
+            }else if (c != ']' && c != '-' && c != '_'){
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String normalize(String name) {
+        return name.replace("[", ".").replace("]", "");
+    }
+
+    /**
+     * 配置树的一个节点, 子节点按规范化名称查找
+     */
+    static final class PropertyNode {
+
+        //原始名称, 用作Map的key
+        final String name;
+
+        String value;
+
+        final Map<String, PropertyNode> children = new LinkedHashMap<>();
+
+        PropertyNode(String name) {
+            this.name = name;
+        }
+
+        private PropertyNode child(String canonicalName, String originalName) {
+            PropertyNode child = children.get(canonicalName);
+            if (child == null){
+                child = new PropertyNode(originalName);
+                children.put(canonicalName, child);
+            }
+            return child;
+        }
+    }
+}
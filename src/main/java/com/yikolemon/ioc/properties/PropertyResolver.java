@@ -1,128 +1,388 @@
 package com.yikolemon.ioc.properties;
 
-import org.apache.commons.lang3.StringUtils;
-
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.file.*;
-import java.time.*;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
+ * 配置解析, 每个容器持有自己的实例. 多个配置来源按优先级(由低到高)合并:
+ * 环境变量 < application.properties < application-{profile}.properties < 系统属性 < 命令行参数 < addProperties.
+ * 合并结果是一个不可修改的快照, 读取无锁, 加载和重新加载时整体替换
  * @author yikolemon
  * @date 2024/12/6
  **/
 public class PropertyResolver {
 
-    private PropertyResolver() {
-    }
+    /**
+     * 激活的profile, 逗号分隔, 可以通过命令行参数或者系统属性指定
+     */
+    public static final String ACTIVE_PROFILES_PROPERTY = "yikolemon.profiles.active";
+
+    private static final Logger LOGGER = Logger.getLogger(PropertyResolver.class.getName());
+
+    //由低到高
+    private final List<PropertySource> propertySources;
+
+    //通过addProperties添加的配置, 重新加载时覆盖在所有来源之上
+    private final Map<String, String> programmatic = new HashMap<>();
+
+    //不可修改的配置快照, 读取无锁, 变化时整体替换
+    private volatile Map<String, String> properties = Collections.emptyMap();
+
+    //配置项 -> 所在来源的优先级, 越大越高, 规范化后同名的配置项按优先级取舍
+    private volatile Map<String, Integer> precedences = Collections.emptyMap();
+
+    //@ConfigurationProperties使用的前缀索引, 配置快照变化后第一次绑定时重建
+    private volatile PropertyIndex propertyIndex;
+
+    private final List<Consumer<Set<String>>> changeListeners = new CopyOnWriteArrayList<>();
+
+    private PropertyFileWatcher propertyFileWatcher;
+
+    private final TypeConverter typeConverter = new TypeConverter();
 
-     private static final Map<String, String> PROPERTIES_MAP = new HashMap<>();
+    //配置或者转换方法变化时递增, 缓存的转换结果随之失效
+    private final AtomicLong version = new AtomicLong();
 
-     //类型转换方法map
-    private static final Map<Class<?>, Function<String, Object>> CONVERTERS = new HashMap<>();
+    //目标类型 -> (编译后的表达式 -> 转换结果), 热点配置的重复读取不再解析和转换
+    private final Map<Type, Map<PropertyTemplate, ConvertedValue>> converted = new ConcurrentHashMap<>();
 
-    static {
-        //放入系统props
-        PROPERTIES_MAP.putAll(System.getenv());
-        //读取配置文件，加载配置项
+    //@Value表达式的编译结果, 数量由代码中的表达式决定
+    private final PropertyTemplate.Cache expressions = new PropertyTemplate.Cache(PropertyTemplate::compileExpression);
+
+    //getInt等方法读取的配置项
+    private final PropertyTemplate.Cache keys = new PropertyTemplate.Cache(PropertyTemplate::forKey);
+
+    //配置值中的表达式的编译结果, 配置变化时清空
+    private final PropertyTemplate.Cache valueTemplates = new PropertyTemplate.Cache(PropertyTemplate::compile);
+
+    /**
+     * 使用默认的配置来源
+     * @param commandLineArgs --key=value形式的命令行参数
+     */
+    public PropertyResolver(String... commandLineArgs) {
+        this(getDefaultPropertySources(commandLineArgs));
+    }
+
+    /**
+     * @param propertySources 配置来源, 由低到高
+     */
+    public PropertyResolver(List<PropertySource> propertySources) {
+        this.propertySources = Collections.unmodifiableList(new ArrayList<>(propertySources));
         try {
-            readPropertiesFile();
-        } catch (IOException | URISyntaxException e) {
+            reload();
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    static {
-        // String类型:
-        CONVERTERS.put(String.class, s -> s);
-        // boolean类型:
-        CONVERTERS.put(boolean.class, Boolean::parseBoolean);
-        CONVERTERS.put(Boolean.class, Boolean::valueOf);
-        // int类型:
-        CONVERTERS.put(int.class, Integer::parseInt);
-        CONVERTERS.put(Integer.class, Integer::valueOf);
-        // 其他基本类型...
-        // Date/Time类型:
-        CONVERTERS.put(LocalDate.class, LocalDate::parse);
-        CONVERTERS.put(LocalTime.class, LocalTime::parse);
-        CONVERTERS.put(LocalDateTime.class, LocalDateTime::parse);
-        CONVERTERS.put(ZonedDateTime.class, ZonedDateTime::parse);
-        CONVERTERS.put(Duration.class, Duration::parse);
-        CONVERTERS.put(ZoneId.class, ZoneId::of);
+    /**
+     * 环境变量, application.properties, 按激活顺序的application-{profile}.properties, 系统属性, 命令行参数
+     */
+    public static List<PropertySource> getDefaultPropertySources(String... commandLineArgs) {
+        List<PropertySource> sources = new ArrayList<>();
+        sources.add(PropertySource.environment());
+        sources.add(PropertySource.classpath("application.properties"));
+        String profiles = PropertySource.parseCommandLine(commandLineArgs).get(ACTIVE_PROFILES_PROPERTY);
+        if (profiles == null){
+            profiles = System.getProperty(ACTIVE_PROFILES_PROPERTY, "");
+        }
+        for (String profile : profiles.split(",")) {
+            if (!profile.trim().isEmpty()){
+                sources.add(PropertySource.classpath("application-" + profile.trim() + ".properties"));
+            }
+        }
+        sources.add(PropertySource.systemProperties());
+        sources.add(PropertySource.commandLine(commandLineArgs));
+        return sources;
     }
 
+    public List<PropertySource> getPropertySources() {
+        return propertySources;
+    }
 
-    public static <T> T getRequiredProperty(String key, Class<T> tClass) throws ValueInjectException{
+    public <T> T getRequiredProperty(String key, Class<T> tClass) throws ValueInjectException{
         T property = getProperty(key, tClass);
         Objects.requireNonNull(property);
         return property;
     }
 
-    public static <T> T getProperty(String key, Class<T> tClass) throws ValueInjectException {
-         String val = getProperty(key);
-         return convert(val, tClass);
-     }
+    /**
+     * @param type 目标类型, 可以是List<Integer>等泛型类型
+     */
+    public Object getRequiredProperty(String key, Type type) throws ValueInjectException{
+        Object property = getProperty(key, type);
+        Objects.requireNonNull(property);
+        return property;
+    }
 
-    // 转换到指定Class类型:
-     private static <T> T convert(String val, Class<T> tClass){
-         Function<String, Object> fn = CONVERTERS.get(tClass);
-         if (fn == null) {
-             throw new IllegalArgumentException("Unsupported value type: " + tClass.getName());
-         }
-         return (T) fn.apply(val);
+    @SuppressWarnings("unchecked")
+    public <T> T getProperty(String key, Class<T> tClass) throws ValueInjectException {
+         return (T) getProperty(key, (Type) tClass);
      }
 
-     private static String getProperty(String key) throws ValueInjectException {
-         PropertyParsing keyParsing = new PropertyParsing(key);
-         String defaultVal = keyParsing.getDefaultVal();
-         String mapVal = PROPERTIES_MAP.get(key);
-         if (StringUtils.isEmpty(mapVal) && StringUtils.isEmpty(defaultVal)){
-             throw ValueInjectException.notExist(key);
-         }else if (!StringUtils.isEmpty(mapVal)){
-             return mapVal;
-         }else {
-//             !StringUtils.isEmpty(defaultVal)
-             return defaultVal;
-         }
-     }
+    /**
+     * @param key @Value表达式, 如 ${server.port:8080}
+     */
+    public Object getProperty(String key, Type type) throws ValueInjectException {
+        PropertyTemplate template = expressions.get(key);
+        if (type instanceof Class && ((Class<?>) type).isArray()){
+            //数组可以被修改, 不共享
+            return typeConverter.get(type).apply(resolve(template));
+        }
+        return getConverted(template, type).value;
+    }
 
-     public static void addProperties(Properties props){
-        if (props == null){
-            return;
+    /**
+     * @param key 配置项名称, 如 server.port, 不支持默认值等表达式语法
+     * @throws IllegalArgumentException 配置值不是int或者超出int范围
+     */
+    public int getInt(String key) throws ValueInjectException {
+        //按long转换, 超出int范围时给出明确的错误而不是NumberFormatException
+        long value = getConverted(keys.get(key), long.class).longValue;
+        if (value != (int) value){
+            throw new IllegalArgumentException(String.format("Value of property '%s' is out of int range: %d", key, value));
+        }
+        return (int) value;
+    }
+
+    /**
+     * @param key 配置项名称
+     */
+    public long getLong(String key) throws ValueInjectException {
+        return getConverted(keys.get(key), long.class).longValue;
+    }
+
+    /**
+     * @param key 配置项名称
+     */
+    public double getDouble(String key) throws ValueInjectException {
+        return getConverted(keys.get(key), double.class).doubleValue;
+    }
+
+    /**
+     * @param key 配置项名称
+     */
+    public boolean getBoolean(String key) throws ValueInjectException {
+        return (Boolean) getConverted(keys.get(key), boolean.class).value;
+    }
+
+    /**
+     * 注册或者覆盖一个类型的转换方法, 数组、List、Set中的元素同样使用该方法转换
+     */
+    public <T> void registerConverter(Class<T> type, Function<String, ? extends T> converter){
+        typeConverter.register(type, converter);
+        version.incrementAndGet();
+    }
+
+    /**
+     * 缓存命中时不分配对象
+     * @throws IllegalArgumentException 不支持的类型或者配置值格式错误
+     */
+    private ConvertedValue getConverted(PropertyTemplate template, Type type) throws ValueInjectException {
+        Map<PropertyTemplate, ConvertedValue> values = converted.get(type);
+        if (values == null){
+            values = converted.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
         }
-         //存储入参,遍历
-         Set<String> propKeys = props.stringPropertyNames();
-         propKeys.forEach(k ->{
-             String v = props.getProperty(k);
-             PROPERTIES_MAP.put(k, v);
-         });
+        long current = version.get();
+        ConvertedValue value = values.get(template);
+        if (value == null || value.version != current){
+            //解析期间配置变化时记录的是旧版本, 下次读取重新计算
+            value = new ConvertedValue(current, typeConverter.get(type).apply(resolve(template)));
+            values.put(template, value);
+        }
+        return value;
+    }
+
+     private String resolve(PropertyTemplate template) throws ValueInjectException {
+         return template.resolve(properties::get, valueTemplates);
      }
 
+    /**
+     * @param key @Value表达式
+     * @return 按当前配置解析表达式时读取的全部配置项(包括不存在的配置项和配置值中嵌套引用的配置项),
+     * 这些配置项都不变时表达式的结果不变
+     */
+    public Set<String> getReferencedKeys(String key) throws ValueInjectException {
+        Map<String, String> snapshot = properties;
+        Set<String> keys = new HashSet<>();
+        try {
+            expressions.get(key).resolve(k -> {
+                keys.add(k);
+                return snapshot.get(k);
+            }, valueTemplates);
+        } catch (ValueInjectException e) {
+            //配置项不存在时已经记录, 配置出现后同样需要重新解析
+        }
+        return keys;
+    }
 
+    /**
+     * 把前缀下的配置按字段名(宽松匹配)绑定到target上, 只遍历前缀下的配置项
+     * @param prefix 为空字符串时绑定全部配置
+     * @return target
+     */
+    public <T> T bind(String prefix, T target) throws ValueInjectException {
+        PropertyIndex index = propertyIndex;
+        if (index == null || index.source != properties){
+            //与修改配置互斥, 保证配置快照和优先级一致
+            synchronized (this) {
+                Map<String, Integer> snapshotPrecedences = precedences;
+                index = new PropertyIndex(properties, key -> snapshotPrecedences.getOrDefault(key, 0));
+                propertyIndex = index;
+            }
+        }
+        Map<String, String> snapshot = index.source;
+        ConfigurationPropertiesBinder binder = new ConfigurationPropertiesBinder(typeConverter,
+                value -> value.contains("${") ? valueTemplates.get(value).resolve(snapshot::get, valueTemplates) : value);
+        binder.bind(target, index.getTree(prefix));
+        return target;
+    }
 
-     private static void readPropertiesFile() throws IOException, URISyntaxException {
-         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-         Enumeration<URL> resources = classLoader.getResources("application.properties");
-         while (resources.hasMoreElements()) {
-             URL url = resources.nextElement();
-             Path path = Paths.get(url.toURI());
-             if (Files.exists(path)) {
-                 Properties properties = new Properties();
-                 try (InputStream inputStream = Files.newInputStream(path)) {
-                     properties.load(inputStream);
-                 }
-                 //读取到文件中
-                 addProperties(properties);
+     /**
+      * 添加或覆盖配置项, 优先级最高, 变化的配置项会通知监听器
+      */
+     public void addProperties(Properties props){
+        if (props == null){
+            return;
+        }
+         synchronized (this) {
+             Map<String, String> next = new HashMap<>(properties);
+             Map<String, Integer> nextPrecedences = new HashMap<>(precedences);
+             //存储入参,遍历
+             for (String k : props.stringPropertyNames()) {
+                 String v = props.getProperty(k);
+                 programmatic.put(k, v);
+                 next.put(k, v);
+                 nextPrecedences.put(k, propertySources.size());
              }
+             swap(next, nextPrecedences);
          }
      }
 
+    /**
+     * 重新读取所有配置来源, 整体替换配置快照, 变化的配置项会通知监听器
+     */
+    public void reload() throws IOException {
+        synchronized (this) {
+            Map<String, String> loaded = new HashMap<>();
+            Map<String, Integer> loadedPrecedences = new HashMap<>();
+            for (int i = 0; i < propertySources.size(); i++) {
+                Map<String, String> sourceProperties = propertySources.get(i).load();
+                loaded.putAll(sourceProperties);
+                for (String key : sourceProperties.keySet()) {
+                    loadedPrecedences.put(key, i);
+                }
+            }
+            loaded.putAll(programmatic);
+            for (String key : programmatic.keySet()) {
+                loadedPrecedences.put(key, propertySources.size());
+            }
+            swap(loaded, loadedPrecedences);
+        }
+    }
+
+    /**
+     * @param listener 参数为值发生变化(包括新增和删除)的配置项, 在修改配置的线程上执行
+     */
+    public void addChangeListener(Consumer<Set<String>> listener){
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Consumer<Set<String>> listener){
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * 监听配置来源中的文件(classpath目录下的配置文件), 变化时调用{@link #reload()}
+     */
+    public synchronized void startWatching() throws IOException {
+        if (propertyFileWatcher != null){
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        for (PropertySource source : propertySources) {
+            files.addAll(source.getWatchableFiles());
+        }
+        propertyFileWatcher = new PropertyFileWatcher(files, () -> {
+            try {
+                reload();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "cannot reload properties", e);
+            }
+        });
+        propertyFileWatcher.start();
+    }
+
+    public synchronized void stopWatching() throws IOException {
+        if (propertyFileWatcher != null){
+            propertyFileWatcher.close();
+            propertyFileWatcher = null;
+        }
+    }
+
+    /**
+     * 调用方持有锁
+     */
+    private void swap(Map<String, String> next, Map<String, Integer> nextPrecedences) {
+        precedences = nextPrecedences;
+        Map<String, String> previous = properties;
+        Set<String> changed = new HashSet<>();
+        next.forEach((k, v) -> {
+            if (!v.equals(previous.get(k))){
+                changed.add(k);
+            }
+        });
+        for (String k : previous.keySet()) {
+            if (!next.containsKey(k)){
+                changed.add(k);
+            }
+        }
+        if (changed.isEmpty()){
+            return;
+        }
+        properties = Collections.unmodifiableMap(next);
+        version.incrementAndGet();
+        valueTemplates.clear();
+        Set<String> changedKeys = Collections.unmodifiableSet(changed);
+        for (Consumer<Set<String>> listener : changeListeners) {
+            try {
+                listener.accept(changedKeys);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "property change listener failed", e);
+            }
+        }
+    }
+
+    private static final class ConvertedValue {
+
+        private final long version;
+
+        private final Object value;
+
+        //数值类型的基本类型值, 供getInt/getLong/getDouble直接返回
+        private final long longValue;
+
+        private final double doubleValue;
+
+        ConvertedValue(long version, Object value) {
+            this.version = version;
+            this.value = value;
+            this.longValue = value instanceof Number ? ((Number) value).longValue() : 0L;
+            this.doubleValue = value instanceof Number ? ((Number) value).doubleValue() : 0D;
+        }
+    }
+
     public static void main(String[] args) {
-        PROPERTIES_MAP.forEach((key, value) -> System.out.println("key: " + key + ",value: " + value));
+        new PropertyResolver(args).properties.forEach((key, value) -> System.out.println("key: " + key + ",value: " + value));
     }
 
 }
@@ -0,0 +1,143 @@
+package com.yikolemon.ioc.properties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * 一个配置来源, {@link PropertyResolver}加载和重新加载时按优先级合并所有来源
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public abstract class PropertySource {
+
+    private final String name;
+
+    protected PropertySource(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 当前的全部配置项, 每次加载都会调用
+     */
+    public abstract Map<String, String> load() throws IOException;
+
+    /**
+     * @return 内容变化时需要重新加载的文件
+     */
+    public List<Path> getWatchableFiles() throws IOException {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    public static PropertySource environment() {
+        return new PropertySource("environment") {
+            @Override
+            public Map<String, String> load() {
+                return System.getenv();
+            }
+        };
+    }
+
+    public static PropertySource systemProperties() {
+        return new PropertySource("systemProperties") {
+            @Override
+            public Map<String, String> load() {
+                return toMap(System.getProperties());
+            }
+        };
+    }
+
+    /**
+     * classpath下所有同名资源, 可能在jar中
+     */
+    public static PropertySource classpath(String resource) {
+        return new PropertySource("classpath:" + resource) {
+            @Override
+            public Map<String, String> load() throws IOException {
+                Map<String, String> loaded = new HashMap<>();
+                Enumeration<URL> resources = Thread.currentThread().getContextClassLoader().getResources(resource);
+                while (resources.hasMoreElements()) {
+                    URL url = resources.nextElement();
+                    //配置文件可能在jar中, 不能转换为Path
+                    Properties properties = new Properties();
+                    try (InputStream inputStream = url.openStream()) {
+                        properties.load(inputStream);
+                    }
+                    loaded.putAll(toMap(properties));
+                }
+                return loaded;
+            }
+
+            @Override
+            public List<Path> getWatchableFiles() throws IOException {
+                List<Path> files = new ArrayList<>();
+                Enumeration<URL> resources = Thread.currentThread().getContextClassLoader().getResources(resource);
+                while (resources.hasMoreElements()) {
+                    URL url = resources.nextElement();
+                    //jar中的文件不监听
+                    if ("file".equals(url.getProtocol())){
+                        try {
+                            files.add(Paths.get(url.toURI()));
+                        } catch (URISyntaxException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                }
+                return files;
+            }
+        };
+    }
+
+    /**
+     * @param args --key=value形式的参数, 其它参数被忽略
+     */
+    public static PropertySource commandLine(String... args) {
+        Map<String, String> parsed = parseCommandLine(args);
+        return of("commandLine", parsed);
+    }
+
+    /**
+     * 固定的配置项, 创建时复制
+     */
+    public static PropertySource of(String name, Map<String, String> properties) {
+        Map<String, String> copy = Collections.unmodifiableMap(new HashMap<>(properties));
+        return new PropertySource(name) {
+            @Override
+            public Map<String, String> load() {
+                return copy;
+            }
+        };
+    }
+
+    static Map<String, String> parseCommandLine(String... args) {
+        Map<String, String> parsed = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 2){
+                parsed.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return parsed;
+    }
+
+    private static Map<String, String> toMap(Properties properties) {
+        Map<String, String> map = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            map.put(key, properties.getProperty(key));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,251 @@
+package com.yikolemon.ioc.properties;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 编译后的@Value表达式, 由字面量和占位符组成, 每个表达式只解析一次并缓存:
+ * <ul>
+ *     <li>{@code ${db.url}} 读取配置项</li>
+ *     <li>{@code ${port:8080}} 配置项不存在时使用默认值</li>
+ *     <li>{@code ${a:${b:x}}} 默认值和key中可以嵌套占位符</li>
+ *     <li>{@code jdbc:${host}:${port}} 字面量和占位符组合</li>
+ *     <li>{@code \${} 转义, 反斜杠可以转义 $ { } : \ 字符</li>
+ * </ul>
+ * 不包含占位符和转义字符的表达式按配置项名称读取. 配置值中的占位符递归解析, 出现循环引用时抛出异常
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+final class PropertyTemplate {
+
+    private static final String ESCAPABLE = "${}:\\";
+
+    private final String expression;
+
+    //String字面量或者Placeholder
+    private final Object[] parts;
+
+    private PropertyTemplate(String expression, List<Object> parts) {
+        this.expression = expression;
+        this.parts = parts.toArray();
+    }
+
+    /**
+     * @throws ValueInjectException 表达式为空或者占位符没有闭合
+     */
+    static PropertyTemplate compile(String expression) throws ValueInjectException {
+        if (StringUtils.isEmpty(expression)){
+            throw ValueInjectException.nullKey(expression);
+        }
+        Parser parser = new Parser(expression);
+        return new PropertyTemplate(expression, parser.parseParts(""));
+    }
+
+    /**
+     * 编译@Value表达式, 整个表达式是一个字面量时作为配置项名称
+     */
+    static PropertyTemplate compileExpression(String expression) throws ValueInjectException {
+        PropertyTemplate template = compile(expression);
+        if (template.isLiteral() && expression.equals(template.parts[0])){
+            List<Object> parts = new ArrayList<>(1);
+            parts.add(new Placeholder(template, null));
+            return new PropertyTemplate(expression, parts);
+        }
+        return template;
+    }
+
+    /**
+     * 读取一个配置项, 名称中的字符都不作为占位符语法解析
+     */
+    static PropertyTemplate forKey(String key) throws ValueInjectException {
+        if (StringUtils.isEmpty(key)){
+            throw ValueInjectException.nullKey(key);
+        }
+        List<Object> keyParts = new ArrayList<>(1);
+        keyParts.add(key);
+        List<Object> parts = new ArrayList<>(1);
+        parts.add(new Placeholder(new PropertyTemplate(key, keyParts), null));
+        return new PropertyTemplate(key, parts);
+    }
+
+    private boolean isLiteral() {
+        return parts.length == 1 && parts[0] instanceof String;
+    }
+
+    /**
+     * @param source 配置项查询, 不存在时返回null
+     * @param values 配置值中的表达式的编译缓存
+     */
+    String resolve(Function<String, String> source, Cache values) throws ValueInjectException {
+        return resolve(source, values, null);
+    }
+
+    /**
+     * @param resolving 正在解析的配置项, 用于检测循环引用, 配置值中没有占位符时不需要创建
+     */
+    private String resolve(Function<String, String> source, Cache values, Set<String> resolving) throws ValueInjectException {
+        if (isLiteral()){
+            return (String) parts[0];
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof String){
+                sb.append((String) part);
+            }else{
+                sb.append(((Placeholder) part).resolve(source, values, resolving));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static class Placeholder {
+
+        private final PropertyTemplate key;
+
+        //null表示没有默认值, 空模板表示默认值为空字符串
+        private final PropertyTemplate defaultValue;
+
+        Placeholder(PropertyTemplate key, PropertyTemplate defaultValue) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+
+        String resolve(Function<String, String> source, Cache values, Set<String> resolving) throws ValueInjectException {
+            String resolvedKey = key.resolve(source, values, resolving);
+            String value = source.apply(resolvedKey);
+            if (StringUtils.isEmpty(value)){
+                if (defaultValue == null){
+                    throw ValueInjectException.notExist(resolvedKey);
+                }
+                return defaultValue.resolve(source, values, resolving);
+            }
+            if (!value.contains("${")){
+                return value;
+            }
+            //配置值本身也是表达式
+            Set<String> path = resolving == null ? new LinkedHashSet<>() : resolving;
+            if (!path.add(resolvedKey)){
+                throw ValueInjectException.circularReference(String.join(" -> ", path) + " -> " + resolvedKey);
+            }
+            String resolved = values.get(value).resolve(source, values, path);
+            path.remove(resolvedKey);
+            return resolved;
+        }
+    }
+
+    /**
+     * 编译结果的缓存, 每个{@link PropertyResolver}持有自己的实例, 容器之间互不影响
+     */
+    static final class Cache {
+
+        private final Map<String, PropertyTemplate> templates = new ConcurrentHashMap<>();
+
+        private final Compiler compiler;
+
+        /**
+         * @param compiler {@link #compile}, {@link #compileExpression}或者{@link #forKey}
+         */
+        Cache(Compiler compiler) {
+            this.compiler = compiler;
+        }
+
+        PropertyTemplate get(String text) throws ValueInjectException {
+            PropertyTemplate template = templates.get(text);
+            if (template == null){
+                template = compiler.compile(text);
+                PropertyTemplate existing = templates.putIfAbsent(text, template);
+                template = existing == null ? template : existing;
+            }
+            return template;
+        }
+
+        void clear() {
+            templates.clear();
+        }
+    }
+
+    @FunctionalInterface
+    interface Compiler {
+
+        PropertyTemplate compile(String text) throws ValueInjectException;
+    }
+
+    private static class Parser {
+
+        private final String text;
+
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * 解析到terminators中的字符(不包含)或者文本结束
+         */
+        List<Object> parseParts(String terminators) throws ValueInjectException {
+            List<Object> parts = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (terminators.indexOf(c) >= 0){
+                    break;
+                }
+                if (c == '\\' && pos + 1 < text.length() && ESCAPABLE.indexOf(text.charAt(pos + 1)) >= 0){
+                    literal.append(text.charAt(pos + 1));
+                    pos += 2;
+                    continue;
+                }
+                if (c == '$' && pos + 1 < text.length() && text.charAt(pos + 1) == '{'){
+                    if (literal.length() > 0){
+                        parts.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    pos += 2;
+                    parts.add(parsePlaceholder());
+                    continue;
+                }
+                literal.append(c);
+                pos++;
+            }
+            if (literal.length() > 0 || parts.isEmpty()){
+                parts.add(literal.toString());
+            }
+            return parts;
+        }
+
+        private Placeholder parsePlaceholder() throws ValueInjectException {
+            int start = pos - 2;
+            List<Object> keyParts = parseParts(":}");
+            int keyEnd = pos;
+            if (keyParts.size() == 1 && "".equals(keyParts.get(0))){
+                throw ValueInjectException.nullKey(text);
+            }
+            PropertyTemplate defaultValue = null;
+            if (pos < text.length() && text.charAt(pos) == ':'){
+                pos++;
+                int defaultStart = pos;
+                List<Object> defaultParts = parseParts("}");
+                defaultValue = new PropertyTemplate(text.substring(defaultStart, pos), defaultParts);
+            }
+            if (pos >= text.length()){
+                throw ValueInjectException.malformed(text);
+            }
+            //跳过 }
+            pos++;
+            return new Placeholder(new PropertyTemplate(text.substring(start + 2, keyEnd), keyParts), defaultValue);
+        }
+    }
+}
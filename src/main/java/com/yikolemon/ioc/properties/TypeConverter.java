@@ -0,0 +1,216 @@
+package com.yikolemon.ioc.properties;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 配置值到目标类型的转换, 支持基本类型及其包装类、数组、枚举、List/Set、时间类型、{@link DataSize}以及用户注册的类型.
+ * 每个{@link PropertyResolver}持有一个实例, 注册的类型互不影响, 每个目标类型的转换方法只生成一次
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+final class TypeConverter {
+
+    //内置的单值类型转换, 静态初始化后不再修改
+    private static final Map<Class<?>, Function<String, ?>> BUILTIN = new HashMap<>();
+
+    //用户注册的单值类型转换
+    private final Map<Class<?>, Function<String, ?>> converters = new ConcurrentHashMap<>();
+
+    //目标类型(可能是泛型) -> 转换方法, 包含数组、枚举和集合
+    private final Map<Type, Function<String, ?>> resolved = new ConcurrentHashMap<>();
+
+    static {
+        BUILTIN.put(String.class, s -> s);
+        BUILTIN.put(boolean.class, TypeConverter::parseBoolean);
+        BUILTIN.put(Boolean.class, TypeConverter::parseBoolean);
+        BUILTIN.put(byte.class, s -> Byte.parseByte(s.trim()));
+        BUILTIN.put(Byte.class, s -> Byte.valueOf(s.trim()));
+        BUILTIN.put(short.class, s -> Short.parseShort(s.trim()));
+        BUILTIN.put(Short.class, s -> Short.valueOf(s.trim()));
+        BUILTIN.put(int.class, s -> Integer.parseInt(s.trim()));
+        BUILTIN.put(Integer.class, s -> Integer.valueOf(s.trim()));
+        BUILTIN.put(long.class, s -> Long.parseLong(s.trim()));
+        BUILTIN.put(Long.class, s -> Long.valueOf(s.trim()));
+        BUILTIN.put(float.class, s -> Float.parseFloat(s.trim()));
+        BUILTIN.put(Float.class, s -> Float.valueOf(s.trim()));
+        BUILTIN.put(double.class, s -> Double.parseDouble(s.trim()));
+        BUILTIN.put(Double.class, s -> Double.valueOf(s.trim()));
+        BUILTIN.put(char.class, TypeConverter::parseChar);
+        BUILTIN.put(Character.class, TypeConverter::parseChar);
+        BUILTIN.put(BigInteger.class, s -> new BigInteger(s.trim()));
+        BUILTIN.put(BigDecimal.class, s -> new BigDecimal(s.trim()));
+        // Date/Time类型:
+        BUILTIN.put(LocalDate.class, LocalDate::parse);
+        BUILTIN.put(LocalTime.class, LocalTime::parse);
+        BUILTIN.put(LocalDateTime.class, LocalDateTime::parse);
+        BUILTIN.put(ZonedDateTime.class, ZonedDateTime::parse);
+        BUILTIN.put(Duration.class, TypeConverter::parseDuration);
+        BUILTIN.put(ZoneId.class, ZoneId::of);
+        BUILTIN.put(DataSize.class, DataSize::parse);
+    }
+
+    <T> void register(Class<T> type, Function<String, ? extends T> converter) {
+        converters.put(type, converter);
+        //数组、集合的转换方法可能引用了旧的元素转换
+        resolved.clear();
+    }
+
+    /**
+     * @throws IllegalArgumentException 不支持的类型
+     */
+    Function<String, ?> get(Type type) {
+        Function<String, ?> converter = resolved.get(type);
+        if (converter == null){
+            converter = create(type);
+            resolved.put(type, converter);
+        }
+        return converter;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Function<String, ?> create(Type type) {
+        if (type instanceof ParameterizedType){
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Type raw = parameterized.getRawType();
+            if (raw == List.class || raw == Collection.class){
+                Function<String, ?> element = get(parameterized.getActualTypeArguments()[0]);
+                return s -> Collections.unmodifiableList(splitAndConvert(s, element));
+            }
+            if (raw == Set.class){
+                Function<String, ?> element = get(parameterized.getActualTypeArguments()[0]);
+                return s -> Collections.unmodifiableSet(new LinkedHashSet<>(splitAndConvert(s, element)));
+            }
+            return get(raw);
+        }
+        if (!(type instanceof Class)){
+            throw new IllegalArgumentException("Unsupported value type: " + type.getTypeName());
+        }
+        Class<?> clazz = (Class<?>) type;
+        Function<String, ?> converter = converters.get(clazz);
+        if (converter == null){
+            converter = BUILTIN.get(clazz);
+        }
+        if (converter != null){
+            return converter;
+        }
+        if (clazz.isEnum()){
+            return s -> parseEnum((Class) clazz, s);
+        }
+        if (clazz.isArray()){
+            Class<?> componentType = clazz.getComponentType();
+            Function<String, ?> element = get(componentType);
+            return s -> {
+                List<?> values = splitAndConvert(s, element);
+                Object array = Array.newInstance(componentType, values.size());
+                for (int i = 0; i < values.size(); i++) {
+                    //基本类型数组在这里拆箱
+                    Array.set(array, i, values.get(i));
+                }
+                return array;
+            };
+        }
+        if (clazz == List.class || clazz == Collection.class){
+            return s -> Collections.unmodifiableList(splitAndConvert(s, BUILTIN.get(String.class)));
+        }
+        if (clazz == Set.class){
+            return s -> Collections.unmodifiableSet(new LinkedHashSet<>(splitAndConvert(s, BUILTIN.get(String.class))));
+        }
+        throw new IllegalArgumentException("Unsupported value type: " + clazz.getName());
+    }
+
+    /**
+     * 逗号分隔, 去掉首尾空白, 空字符串为空集合
+     */
+    private static List<Object> splitAndConvert(String s, Function<String, ?> element) {
+        if (s.trim().isEmpty()){
+            return new ArrayList<>(0);
+        }
+        String[] items = s.split(",");
+        List<Object> values = new ArrayList<>(items.length);
+        for (String item : items) {
+            values.add(element.apply(item.trim()));
+        }
+        return values;
+    }
+
+    private static Boolean parseBoolean(String s) {
+        String value = s.trim();
+        if ("true".equalsIgnoreCase(value)){
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(value)){
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("Invalid boolean value: " + s);
+    }
+
+    private static Character parseChar(String s) {
+        if (s.length() != 1){
+            throw new IllegalArgumentException("Invalid char value: " + s);
+        }
+        return s.charAt(0);
+    }
+
+    /**
+     * 名称完全匹配, 否则忽略大小写并把 - 当作 _ 匹配
+     */
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String s) {
+        String value = s.trim();
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equals(value)){
+                return constant;
+            }
+        }
+        String relaxed = value.replace('-', '_');
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(relaxed)){
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException(String.format("No enum constant %s.%s", type.getName(), value));
+    }
+
+    /**
+     * ISO-8601格式(PT10S)或者数字加单位: ns, us, ms, s, m, h, d, 没有单位时按毫秒计算
+     */
+    static Duration parseDuration(String s) {
+        String value = s.trim();
+        if (value.startsWith("P") || value.startsWith("p") || value.startsWith("-P")){
+            return Duration.parse(value);
+        }
+        int unitStart = value.length();
+        while (unitStart > 0 && Character.isLetter(value.charAt(unitStart - 1))) {
+            unitStart--;
+        }
+        long amount = Long.parseLong(value.substring(0, unitStart).trim());
+        String unit = value.substring(unitStart).toLowerCase(Locale.ROOT);
+        switch (unit) {
+            case "ns":
+                return Duration.ofNanos(amount);
+            case "us":
+                return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(amount));
+            case "":
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            case "d":
+                return Duration.ofDays(amount);
+            default:
+                throw new IllegalArgumentException("Unknown duration unit: " + s);
+        }
+    }
+}
@@ -28,4 +28,12 @@ public class ValueInjectException extends Exception{
         return new ValueInjectException(fieldName, "null parsing text");
     }
 
+    public static ValueInjectException malformed(String fieldName){
+        return new ValueInjectException(fieldName, "unclosed placeholder");
+    }
+
+    public static ValueInjectException circularReference(String fieldName){
+        return new ValueInjectException(fieldName, "circular placeholder reference");
+    }
+
 }
@@ -0,0 +1,177 @@
+package com.yikolemon.ioc.resource;
+
+import java.io.*;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 一个包(包括子包)下全部class文件的内容戳: 相对名称、大小和内容CRC32, 与所在位置无关,
+ * 同一批class在目录中和打包进jar后得到相同的内容戳.
+ * <p>
+ * 比较时jar只读取central directory中记录的CRC, 不解压条目; 目录只读取文件属性,
+ * 大小和修改时间都与记录一致的文件不读取内容, 修改时间变化(如复制目录)的文件才重新计算CRC
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class ClassFileStamps {
+
+    //资源名 -> 内容戳, 如 org/example/Hello.class
+    private final Map<String, Stamp> stamps;
+
+    private ClassFileStamps(Map<String, Stamp> stamps) {
+        this.stamps = stamps;
+    }
+
+    /**
+     * 计算内容戳, 目录中的class文件会被完整读取, 用于构建期
+     * @param basePackage 包名
+     */
+    public static ClassFileStamps compute(String basePackage) {
+        Map<String, Stamp> stamps = new TreeMap<>();
+        String packagePath = basePackage.replace(".", "/");
+        try {
+            for (URI root : new ClassResourceResolver(basePackage).getRoots()) {
+                if ("jar".equals(root.getScheme())){
+                    forEachJarEntry(root, packagePath, entry ->
+                            stamps.putIfAbsent(entry.getName(), new Stamp(entry.getSize(), entry.getCrc(), 0)));
+                }else{
+                    forEachClassFile(Paths.get(root), packagePath, (name, file, attributes) ->
+                            stamps.putIfAbsent(name, new Stamp(attributes.size(), crc(file),
+                                    attributes.lastModifiedTime().toMillis())));
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException("cannot stamp package " + basePackage, e);
+        }
+        return new ClassFileStamps(stamps);
+    }
+
+    /**
+     * 与当前classpath上的class文件比较, 出现新增、删除或者内容变化时返回false
+     * @param basePackage 包名
+     */
+    public boolean matches(String basePackage) {
+        String packagePath = basePackage.replace(".", "/");
+        Set<String> seen = new HashSet<>(stamps.size() * 2);
+        try {
+            for (URI root : new ClassResourceResolver(basePackage).getRoots()) {
+                boolean[] unchanged = {true};
+                if ("jar".equals(root.getScheme())){
+                    forEachJarEntry(root, packagePath, entry -> {
+                        if (seen.add(entry.getName())){
+                            Stamp stamp = stamps.get(entry.getName());
+                            unchanged[0] &= stamp != null && stamp.size == entry.getSize() && stamp.crc == entry.getCrc();
+                        }
+                    });
+                }else{
+                    forEachClassFile(Paths.get(root), packagePath, (name, file, attributes) -> {
+                        if (!unchanged[0] || !seen.add(name)){
+                            return;
+                        }
+                        Stamp stamp = stamps.get(name);
+                        unchanged[0] = stamp != null && stamp.size == attributes.size()
+                                && (stamp.lastModified == attributes.lastModifiedTime().toMillis() || stamp.crc == crc(file));
+                    });
+                }
+                if (!unchanged[0]){
+                    return false;
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            return false;
+        }
+        //记录中的文件已经被删除
+        return seen.size() == stamps.size();
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(stamps.size());
+        for (Map.Entry<String, Stamp> entry : stamps.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue().size);
+            out.writeLong(entry.getValue().crc);
+            out.writeLong(entry.getValue().lastModified);
+        }
+    }
+
+    public static ClassFileStamps read(DataInput in) throws IOException {
+        int size = in.readInt();
+        Map<String, Stamp> stamps = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            stamps.put(in.readUTF(), new Stamp(in.readLong(), in.readLong(), in.readLong()));
+        }
+        return new ClassFileStamps(stamps);
+    }
+
+    private static void forEachJarEntry(URI root, String packagePath, JarEntryVisitor visitor) throws IOException, URISyntaxException {
+        String prefix = packagePath.isEmpty() ? "" : packagePath + "/";
+        try (JarFile jarFile = new JarFile(ClassResourceResolver.jarUriToFile(root))) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && entry.getName().startsWith(prefix) && entry.getName().endsWith(".class")){
+                    visitor.visit(entry);
+                }
+            }
+        }
+    }
+
+    private static void forEachClassFile(Path dir, String packagePath, ClassFileVisitor visitor) throws IOException {
+        if (!Files.isDirectory(dir)){
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(dir)) {
+            Iterator<Path> iterator = walk.iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                String relative = dir.relativize(path).toString().replace("\\", "/");
+                if (!relative.endsWith(".class")){
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()){
+                    visitor.visit(packagePath.isEmpty() ? relative : packagePath + "/" + relative, path, attributes);
+                }
+            }
+        }
+    }
+
+    private static long crc(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file));
+        return crc.getValue();
+    }
+
+    @FunctionalInterface
+    private interface JarEntryVisitor {
+        void visit(JarEntry entry) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ClassFileVisitor {
+        void visit(String name, Path file, BasicFileAttributes attributes) throws IOException;
+    }
+
+    private static class Stamp {
+
+        private final long size;
+
+        private final long crc;
+
+        //jar条目为0, 只按CRC比较
+        private final long lastModified;
+
+        Stamp(long size, long crc, long lastModified) {
+            this.size = size;
+            this.crc = crc;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.yikolemon.ioc.resource;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 从class文件字节码中读取出的类元数据, 读取过程不会加载类
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ClassMetadata {
+
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    /**
+     * 类全限定名, 如 com.yikolemon.App
+     */
+    private String className;
+
+    private String superClassName;
+
+    private List<String> interfaceNames;
+
+    private int accessFlags;
+
+    /**
+     * 类上直接标注的RuntimeVisible注解全限定名, 不包含元注解
+     */
+    private Set<String> annotationNames;
+
+    public boolean isInterface(){
+        return Modifier.isInterface(accessFlags);
+    }
+
+    public boolean isAnnotation(){
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isAbstract(){
+        return Modifier.isAbstract(accessFlags);
+    }
+
+    /**
+     * @return 是否为可实例化的具体类
+     */
+    public boolean isConcrete(){
+        return !isInterface() && !isAbstract();
+    }
+}
@@ -0,0 +1,288 @@
+package com.yikolemon.ioc.resource;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 直接解析class文件的常量池和RuntimeVisibleAnnotations属性, 在不加载类的前提下判断注解(包括元注解)
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class ClassMetadataReader {
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private final ClassLoader classLoader;
+
+    //类全限定名 -> 元数据
+    private final Map<String, ClassMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    //注解类型 -> 该注解上的全部元注解(递归展开), 同一个reader内只解析一次
+    private final Map<String, Set<String>> metaAnnotationCache = new ConcurrentHashMap<>();
+
+    public ClassMetadataReader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 通过classLoader定位class文件并读取元数据
+     * @param className 类全限定名
+     * @return 元数据, class文件不存在时返回null
+     */
+    public ClassMetadata getMetadata(String className) {
+        ClassMetadata cached = metadataCache.get(className);
+        if (cached != null){
+            return cached;
+        }
+        ClassMetadata metadata = readMetadata(className);
+        if (metadata != null){
+            metadataCache.put(className, metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * 登记已知的元数据(例如来自扫描结果缓存), 之后查询不再读取class文件
+     */
+    public void register(ClassMetadata metadata) {
+        metadataCache.put(metadata.getClassName(), metadata);
+    }
+
+    private ClassMetadata readMetadata(String className) {
+        String resourceName = className.replace(".", "/") + ".class";
+        try (InputStream in = classLoader.getResourceAsStream(resourceName)) {
+            if (in == null){
+                return null;
+            }
+            return read(in);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot read class file " + resourceName, e);
+        }
+    }
+
+    /**
+     * 类上是否标注了目标注解, 直接标注或通过元注解标注均可
+     * @param metadata 类元数据
+     * @param annotationName 注解全限定名
+     */
+    public boolean hasAnnotation(ClassMetadata metadata, String annotationName) {
+        for (String name : metadata.getAnnotationNames()) {
+            if (name.equals(annotationName) || getMetaAnnotationNames(name).contains(annotationName)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否为组件候选类: 可实例化的具体类, 且标注了目标注解
+     */
+    public boolean isCandidate(String className, String annotationName) {
+        ClassMetadata metadata = getMetadata(className);
+        return metadata != null && isCandidate(metadata, annotationName);
+    }
+
+    public boolean isCandidate(ClassMetadata metadata, String annotationName) {
+        if (metadata.isAnnotation() || !metadata.isConcrete()){
+            return false;
+        }
+        return hasAnnotation(metadata, annotationName);
+    }
+
+    /**
+     * 递归查询注解上的元注解
+     * @param annotationName 注解全限定名
+     * @return 元注解全限定名集合
+     */
+    public Set<String> getMetaAnnotationNames(String annotationName) {
+        Set<String> cached = metaAnnotationCache.get(annotationName);
+        if (cached != null){
+            return cached;
+        }
+        Set<String> result = new HashSet<>();
+        collectMetaAnnotations(annotationName, result, new HashSet<>());
+        Set<String> metaNames = Collections.unmodifiableSet(result);
+        metaAnnotationCache.put(annotationName, metaNames);
+        return metaNames;
+    }
+
+    private void collectMetaAnnotations(String annotationName, Set<String> result, Set<String> visiting) {
+        //忽略jdk内部注解, 同时防止注解之间互相标注导致的死循环
+        if (annotationName.startsWith("java") || !visiting.add(annotationName)){
+            return;
+        }
+        ClassMetadata metadata = getMetadata(annotationName);
+        if (metadata == null){
+            return;
+        }
+        for (String metaName : metadata.getAnnotationNames()) {
+            result.add(metaName);
+            collectMetaAnnotations(metaName, result, visiting);
+        }
+    }
+
+    /**
+     * 解析class文件, 只保留类级别信息, 字段和方法会被跳过
+     * @param inputStream class文件输入流
+     * @return 元数据
+     */
+    public static ClassMetadata read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != 0xCAFEBABE){
+            throw new IOException("not a class file");
+        }
+        //minor_version, major_version
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        Object[] constantPool = readConstantPool(in);
+        int accessFlags = in.readUnsignedShort();
+        String className = classNameAt(constantPool, in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        String superClassName = superIndex == 0 ? null : classNameAt(constantPool, superIndex);
+        int interfaceCount = in.readUnsignedShort();
+        List<String> interfaceNames = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames.add(classNameAt(constantPool, in.readUnsignedShort()));
+        }
+        //fields和methods结构一致
+        skipMembers(in);
+        skipMembers(in);
+        Set<String> annotationNames = new LinkedHashSet<>();
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = (String) constantPool[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName)){
+                int annotationCount = in.readUnsignedShort();
+                for (int j = 0; j < annotationCount; j++) {
+                    annotationNames.add(readAnnotation(in, constantPool));
+                }
+            }else{
+                skipFully(in, length);
+            }
+        }
+        return new ClassMetadata(className, superClassName, interfaceNames, accessFlags, annotationNames);
+    }
+
+    /**
+     * 常量池中只保留Utf8和Class两类常量, Class常量保存其name_index
+     */
+    private static Object[] readConstantPool(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        Object[] pool = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    //CONSTANT_Utf8, 格式与DataInput的modified UTF-8一致
+                    pool[i] = in.readUTF();
+                    break;
+                case 7:
+                    //CONSTANT_Class
+                    pool[i] = in.readUnsignedShort();
+                    break;
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    //String, MethodType, Module, Package
+                    skipFully(in, 2);
+                    break;
+                case 15:
+                    //MethodHandle
+                    skipFully(in, 3);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    //Integer, Float, Fieldref, Methodref, InterfaceMethodref, NameAndType, Dynamic, InvokeDynamic
+                    skipFully(in, 4);
+                    break;
+                case 5:
+                case 6:
+                    //Long, Double 占用两个常量池槽位
+                    skipFully(in, 8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("unknown constant pool tag " + tag);
+            }
+        }
+        return pool;
+    }
+
+    private static String classNameAt(Object[] constantPool, int classIndex) {
+        int nameIndex = (Integer) constantPool[classIndex];
+        return ((String) constantPool[nameIndex]).replace('/', '.');
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            //access_flags, name_index, descriptor_index
+            skipFully(in, 6);
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                skipFully(in, 2);
+                skipFully(in, in.readInt());
+            }
+        }
+    }
+
+    /**
+     * 读取一个annotation结构
+     * @return 注解全限定名
+     */
+    private static String readAnnotation(DataInputStream in, Object[] constantPool) throws IOException {
+        String descriptor = (String) constantPool[in.readUnsignedShort()];
+        int pairCount = in.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            //element_name_index
+            skipFully(in, 2);
+            skipElementValue(in, constantPool);
+        }
+        // Lcom/yikolemon/ioc/annotation/Component; -> com.yikolemon.ioc.annotation.Component
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private static void skipElementValue(DataInputStream in, Object[] constantPool) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                //type_name_index, const_name_index
+                skipFully(in, 4);
+                break;
+            case '@':
+                readAnnotation(in, constantPool);
+                break;
+            case '[':
+                int count = in.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(in, constantPool);
+                }
+                break;
+            default:
+                //B C D F I J S Z s c 均为一个常量池索引
+                skipFully(in, 2);
+        }
+    }
+
+    private static void skipFully(DataInputStream in, int n) throws IOException {
+        while (n > 0) {
+            int skipped = in.skipBytes(n);
+            if (skipped <= 0){
+                throw new IOException("unexpected end of class file");
+            }
+            n -= skipped;
+        }
+    }
+}
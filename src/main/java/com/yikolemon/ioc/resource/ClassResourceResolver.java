@@ -1,7 +1,8 @@
 package com.yikolemon.ioc.resource;
 
-import lombok.AllArgsConstructor;
+import com.yikolemon.ioc.util.ClassUtil;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
@@ -10,111 +11,330 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * @author duanfuqiang
  * @date 2024/12/5
  **/
-@AllArgsConstructor
 public class ClassResourceResolver {
 
-    private String basePackage;
+    /**
+     * 并行扫描时子任务的最小资源数, 小于该值不再拆分
+     */
+    private static final int SPLIT_THRESHOLD = 64;
+
+    private final String basePackage;
+
+    /**
+     * 为null时串行扫描, 否则目录子树和jar条目会拆分到该线程池并行处理, 此时mapper需要是线程安全的
+     */
+    private final ForkJoinPool forkJoinPool;
 
+    /**
+     * jar条目缓存, 多个包共用同一个缓存时每个jar只读取一次
+     */
+    private final JarEntryCache jarEntryCache;
+
+    public ClassResourceResolver(String basePackage) {
+        this(basePackage, null);
+    }
+
+    public ClassResourceResolver(String basePackage, ForkJoinPool forkJoinPool) {
+        this(basePackage, forkJoinPool, new JarEntryCache());
+    }
+
+    public ClassResourceResolver(String basePackage, ForkJoinPool forkJoinPool, JarEntryCache jarEntryCache) {
+        this.basePackage = basePackage;
+        this.forkJoinPool = forkJoinPool;
+        this.jarEntryCache = jarEntryCache;
+    }
+
+    /**
+     * 扫描包下全部资源
+     * @param mapper 函数接口, 返回null的资源会被丢弃
+     */
     public <T> List<T> scan(Function<Resource, T> mapper){
-        String packagePath = this.basePackage.replace(".", "/");
+        return scan(ResourceFilter.ALL, mapper);
+    }
+
+    /**
+     * 扫描包下通过过滤的资源
+     * @param filter 资源名过滤器, 被过滤掉的资源不会创建Resource对象
+     * @param mapper 函数接口, 返回null的资源会被丢弃
+     */
+    public <T> List<T> scan(ResourceFilter filter, Function<Resource, T> mapper){
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        List<T> res = new ArrayList<>();
+        for (URI root : getRoots()) {
+            res.addAll(scan(root, filter, mapper, stopped));
+        }
+        return res;
+    }
+
+    /**
+     * 流式访问包下通过过滤的资源, 不收集结果; visitor返回false时终止扫描.
+     * 并行模式下visitor会被并发调用, 终止时已经开始的资源仍会访问完
+     * @param filter 资源名过滤器
+     * @param visitor 访问者
+     */
+    public void visit(ResourceFilter filter, ResourceVisitor visitor){
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        Function<Resource, Object> mapper = resource -> {
+            if (!visitor.visit(resource)){
+                stopped.set(true);
+            }
+            return null;
+        };
+        for (URI root : getRoots()) {
+            if (stopped.get()){
+                return;
+            }
+            scan(root, filter, mapper, stopped);
+        }
+    }
+
+    /**
+     * 查找包在classpath中对应的全部根路径, 每个目录或jar对应一个
+     * @return 形式为file:/xxx/classes/cn/hutool/ 或 jar:file:/xxx/hutool.jar!/cn/hutool/
+     */
+    public List<URI> getRoots(){
+        String packagePath = getPackagePath();
         try {
-            return scan0(mapper, packagePath);
+            //resources 包含目录和文件
+            Enumeration<URL> resources = getClassLoader().getResources(packagePath);
+            List<URI> roots = new ArrayList<>();
+            while (resources.hasMoreElements()){
+                roots.add(resources.nextElement().toURI());
+            }
+            return roots;
         } catch (URISyntaxException | IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private <T> List<T> scan0(Function<Resource, T> mapper, String packagePath) throws URISyntaxException, IOException {
-        ClassLoader classLoader = getClassLoader();
-        //resources 包含目录和文件
-        Enumeration<URL> resources = classLoader.getResources(packagePath);
-        List<T> res = new ArrayList<>();
-        while (resources.hasMoreElements()){
-            URL url = resources.nextElement();
-            URI uri = url.toURI();
-            String path = removeTrailingSlash(uriToString(uri));
+    /**
+     * 只扫描包的某一个根路径
+     * @param root {@link #getRoots()}返回的根路径
+     * @param filter 资源名过滤器
+     * @param mapper 函数接口, 返回null的资源会被丢弃
+     */
+    public <T> List<T> scan(URI root, ResourceFilter filter, Function<Resource, T> mapper){
+        return scan(root, filter, mapper, new AtomicBoolean(false));
+    }
+
+    private <T> List<T> scan(URI root, ResourceFilter filter, Function<Resource, T> mapper, AtomicBoolean stopped){
+        String packagePath = getPackagePath();
+        try {
+            String path = removeTrailingSlash(uriToString(root));
             //jar包下扫描
             if (path.startsWith("jar:")){
-                res.addAll(scanJar(packagePath, uri, mapper));
+                return scanJar(packagePath, root, filter, mapper, stopped);
             } else if (path.startsWith("file:")){
                 //普通目录下扫描
-                res.addAll(scanFile(uri, mapper));
+                return scanFile(packagePath, root, filter, mapper, stopped);
             }
+            return Collections.emptyList();
+        } catch (URISyntaxException | IOException e) {
+            throw new RuntimeException(e);
         }
-        return res;
+    }
+
+    private String getPackagePath(){
+        return this.basePackage.replace(".", "/");
     }
 
     /**
      *
-     * @param packagePath 包路径 /cn/hutool
-     * @param uri classLoader查找出的资源的路径,在jar中的形式为/xxx/xxx/hutool.jar/cn/hutool
+     * @param packagePath 包路径 cn/hutool
+     * @param uri classLoader查找出的资源的路径,在jar中的形式为jar:file:/xxx/xxx/hutool.jar!/cn/hutool
+     * @param filter 资源名过滤器
      * @param mapper 函数接口
+     * @param stopped 终止标记
      * @return 过滤后资源
      * @param <T> 过滤后资源对象泛型
      */
-    private <T> List<T> scanJar(String packagePath, URI uri, Function<Resource, T> mapper) throws IOException {
-        FileSystem fileSystem = null;
-        try{
-            fileSystem = jarUriToPath(uri);
-            Path basePath = fileSystem.getPath(packagePath);
-            return scan(ResourceType.JAR, basePath, mapper);
-        }finally {
-            if (fileSystem != null && fileSystem.isOpen()){
-                fileSystem.close();
+    private <T> List<T> scanJar(String packagePath, URI uri, ResourceFilter filter, Function<Resource, T> mapper,
+                                AtomicBoolean stopped) throws URISyntaxException {
+        List<String> entries = jarEntryCache.getEntries(jarUriToFile(uri), packagePath);
+        // jar中的资源没有对应的Path, name为条目名, 如 org/example/Hello.class
+        Function<String, T> entryMapper = entryName -> filter.accept(entryName)
+                ? mapper.apply(new Resource(null, entryName, ResourceType.JAR)) : null;
+        if (forkJoinPool != null){
+            return invoke(new ListMapTask<>(entries, 0, entries.size(), entryMapper, stopped));
+        }
+        List<T> res = new ArrayList<>();
+        for (String entryName : entries) {
+            if (stopped.get()){
+                break;
+            }
+            T item = entryMapper.apply(entryName);
+            if (item != null){
+                res.add(item);
             }
         }
+        return res;
     }
 
 
-    private <T> List<T> scanFile(URI uri, Function<Resource, T> mapper) {
+    private <T> List<T> scanFile(String packagePath, URI uri, ResourceFilter filter, Function<Resource, T> mapper,
+                                 AtomicBoolean stopped) throws IOException {
         // 根据路径递归扫描目录下的资源
         Path basePath = Paths.get(uri);
-        return scan(ResourceType.FILE, basePath, mapper);
+        if (!Files.exists(basePath) || !Files.isDirectory(basePath)) {
+            return Collections.emptyList();
+        }
+        Function<Path, T> pathMapper = filePath -> {
+            // name为相对classpath根的路径, 如 org/example/Hello.class
+            String name = toResourceName(packagePath, basePath, filePath);
+            if (!filter.accept(name)){
+                return null;
+            }
+            // 使用 mapper 将资源转换成目标类型 T
+            return mapper.apply(new Resource(filePath, name, ResourceType.FILE));
+        };
+        if (forkJoinPool != null){
+            //目录按子树拆分, 每个子任务收集到自己的List, join时合并, 不存在共享写
+            return invoke(new DirectoryScanTask<>(basePath, pathMapper, stopped));
+        }
+        List<T> res = new ArrayList<>();
+        Files.walkFileTree(basePath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()){
+                    T item = pathMapper.apply(file);
+                    if (item != null){
+                        res.add(item);
+                    }
+                }
+                return stopped.get() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+            }
+        });
+        return res;
     }
 
-    private  <T> List<T> scan(ResourceType resourceType, Path basePath, Function<Resource, T> mapper){
-        if (ResourceType.FILE == resourceType){
-            if (!Files.exists(basePath) || !Files.isDirectory(basePath)) {
-                return Collections.emptyList();
+    private <T> List<T> invoke(RecursiveTask<List<T>> task){
+        //已经处于同一个线程池中(例如多个包并行扫描), 直接在当前worker上执行, 避免阻塞等待
+        if (ForkJoinTask.getPool() == forkJoinPool){
+            return task.invoke();
+        }
+        return forkJoinPool.invoke(task);
+    }
+
+    private static class DirectoryScanTask<T> extends RecursiveTask<List<T>> {
+
+        private static final long serialVersionUID = 7649090861353061043L;
+
+        private final Path dir;
+
+        private final Function<Path, T> pathMapper;
+
+        private final AtomicBoolean stopped;
+
+        DirectoryScanTask(Path dir, Function<Path, T> pathMapper, AtomicBoolean stopped) {
+            this.dir = dir;
+            this.pathMapper = pathMapper;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected List<T> compute() {
+            List<DirectoryScanTask<T>> subTasks = new ArrayList<>();
+            List<T> res = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                for (Path child : children) {
+                    if (stopped.get()){
+                        break;
+                    }
+                    //与串行扫描的walkFileTree一致, 不跟随符号链接, 避免链接成环时无限递归
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)){
+                        DirectoryScanTask<T> subTask = new DirectoryScanTask<>(child, pathMapper, stopped);
+                        subTask.fork();
+                        subTasks.add(subTask);
+                    }else if (Files.isRegularFile(child, LinkOption.NOFOLLOW_LINKS)){
+                        T item = pathMapper.apply(child);
+                        if (item != null){
+                            res.add(item);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("cannot scan directory " + dir, e);
             }
+            for (DirectoryScanTask<T> subTask : subTasks) {
+                res.addAll(subTask.join());
+            }
+            return res;
         }
-        // 使用 NIO 的 Files.walk() 遍历目录
-        try (Stream<Path> walk  = Files.walk(basePath)){
-            // 使用 Files.walk() 递归遍历目录
-            return walk.filter(Files::isRegularFile)  // 只处理文件
-                    .map(filePath -> {
-                        // 构造 Resource 对象，可以使用 filePath 的路径和名称
-                        Resource resource = new Resource(filePath,
-                                filePath.getFileName().toString(), resourceType);
-                        // 使用 mapper 将资源转换成目标类型 T
-                        return mapper.apply(resource);
-                    })
-                    .collect(Collectors.toList());  // 收集所有转换后的元素到 List 中
-        } catch (IOException e) {
-            e.printStackTrace();
-            return Collections.emptyList();
+    }
+
+    private static class ListMapTask<E, T> extends RecursiveTask<List<T>> {
+
+        private static final long serialVersionUID = 2989591526265838158L;
+
+        private final List<E> elements;
+
+        private final int from;
+
+        private final int to;
+
+        private final Function<E, T> mapper;
+
+        private final AtomicBoolean stopped;
+
+        ListMapTask(List<E> elements, int from, int to, Function<E, T> mapper, AtomicBoolean stopped) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.mapper = mapper;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from <= SPLIT_THRESHOLD){
+                List<T> res = new ArrayList<>();
+                for (int i = from; i < to && !stopped.get(); i++) {
+                    T item = mapper.apply(elements.get(i));
+                    if (item != null){
+                        res.add(item);
+                    }
+                }
+                return res;
+            }
+            int mid = (from + to) >>> 1;
+            ListMapTask<E, T> left = new ListMapTask<>(elements, from, mid, mapper, stopped);
+            left.fork();
+            List<T> right = new ListMapTask<>(elements, mid, to, mapper, stopped).compute();
+            List<T> res = left.join();
+            res.addAll(right);
+            return res;
         }
     }
 
+    private String toResourceName(String packagePath, Path basePath, Path filePath) {
+        String relative = basePath.relativize(filePath).toString().replace("\\", "/");
+        return packagePath.isEmpty() ? relative : packagePath + "/" + relative;
+    }
+
     /**
      *
-     * @param jarUri classLoader查找出的资源的路径,在jar中的形式为/xxx/xxx/hutool.jar/cn/hutool
-     * @return ZipPath
+     * @param jarUri classLoader查找出的资源的路径,形式为jar:file:/xxx/xxx/hutool.jar!/cn/hutool
+     * @return jar文件
      */
-    FileSystem jarUriToPath(URI jarUri) throws IOException {
-        return FileSystems.newFileSystem(jarUri, Collections.emptyMap());
+    static File jarUriToFile(URI jarUri) throws URISyntaxException {
+        String spec = jarUri.getRawSchemeSpecificPart();
+        int separator = spec.indexOf("!/");
+        return new File(new URI(separator == -1 ? spec : spec.substring(0, separator)));
     }
 
     /**
@@ -134,24 +354,15 @@ public class ClassResourceResolver {
     }
 
     private ClassLoader getClassLoader(){
-        //如果是WEB应用，拿到的Thread是Servlet提供的
-        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-        if (classLoader != null){
-            return classLoader;
-        }
-        return this.getClassLoader();
+        return ClassUtil.getDefaultClassLoader();
     }
 
     public static void main(String[] args) {
         ClassResourceResolver resolver = new ClassResourceResolver("com.yikolemon");
-        List<String> classList = resolver.scan(resource -> {
+        List<String> classList = resolver.scan(ResourceFilter.extension(".class"), resource -> {
             String name = resource.getName();
-            if (name.endsWith(".class")) {
-                // 把"org/example/Hello.class"变为"org.example.Hello":
-                return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
-            }
-            //非class文件
-            return null;
+            // 把"org/example/Hello.class"变为"org.example.Hello":
+            return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
         });
         for (String className : classList) {
             System.out.println(className);
@@ -0,0 +1,302 @@
+package com.yikolemon.ioc.resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * 监听file:类型classpath根路径下的class文件变化, 以批的形式回调新增、修改、删除的类名.
+ * jar中的类不会被监听
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class ClassResourceWatcher implements Closeable {
+
+    /**
+     * 收到事件后等待该时间内没有新事件再回调, 避免编译器分多次写文件时重复触发
+     */
+    private static final long QUIET_PERIOD_MILLIS = 300;
+
+    private static final Logger LOGGER = Logger.getLogger(ClassResourceWatcher.class.getName());
+
+    private final WatchService watchService;
+
+    //WatchKey -> 监听目录
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+
+    //监听目录 -> 该目录对应的包路径, 如 org/example
+    private final Map<Path, String> packagePaths = new HashMap<>();
+
+    //已知的class文件 -> 类名和修改时间, 事件丢失(OVERFLOW)时与磁盘比较得出变化
+    private final Map<Path, ClassFile> classFiles = new HashMap<>();
+
+    private final Consumer<ClassChangeSet> listener;
+
+    private Thread watchThread;
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param basePackages 监听的包
+     * @param listener 变化回调, 在监听线程上执行
+     */
+    public ClassResourceWatcher(Collection<String> basePackages, Consumer<ClassChangeSet> listener) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.listener = listener;
+        for (String basePackage : basePackages) {
+            String packagePath = basePackage.replace(".", "/");
+            for (URI root : new ClassResourceResolver(basePackage).getRoots()) {
+                if ("file".equals(root.getScheme())){
+                    registerAll(Paths.get(root), packagePath, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * 启动守护线程监听
+     */
+    public synchronized void start() {
+        if (watchThread != null){
+            return;
+        }
+        watchThread = new Thread(this::watchLoop, "class-resource-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+    }
+
+    private void watchLoop() {
+        ClassChangeSet pending = new ClassChangeSet();
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = pending.isEmpty() ? watchService.take()
+                        : watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (key == null){
+                //静默期内没有新事件, 投递一批
+                try {
+                    listener.accept(pending);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "class change listener failed", e);
+                }
+                pending = new ClassChangeSet();
+                continue;
+            }
+            Path dir = watchedDirs.get(key);
+            if (dir != null){
+                handleEvents(key, dir, pending);
+            }
+            if (!key.reset()){
+                watchedDirs.remove(key);
+                packagePaths.remove(dir);
+            }
+        }
+    }
+
+    private void handleEvents(WatchKey key, Path dir, ClassChangeSet pending) {
+        String packagePath = packagePaths.get(dir);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW){
+                //事件已经丢失, 无法确定哪些文件变化, 重新扫描全部监听目录
+                rescan(pending);
+                continue;
+            }
+            Path child = dir.resolve((Path) event.context());
+            String childName = child.getFileName().toString();
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(child)){
+                //新建的目录需要继续监听, 目录中已有的class视为新增
+                try {
+                    registerAll(child, childPath(packagePath, childName), pending);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "cannot watch directory " + child, e);
+                }
+                continue;
+            }
+            if (!childName.endsWith(".class")){
+                continue;
+            }
+            String className = className(packagePath, childName);
+            if (event.kind() == ENTRY_CREATE){
+                classFiles.put(child, new ClassFile(className, lastModifiedTime(child)));
+                pending.added(className);
+            }else if (event.kind() == ENTRY_MODIFY){
+                classFiles.put(child, new ClassFile(className, lastModifiedTime(child)));
+                pending.modified(className);
+            }else if (event.kind() == ENTRY_DELETE){
+                classFiles.remove(child);
+                pending.removed(className);
+            }
+        }
+    }
+
+    /**
+     * 按修改时间比较全部监听目录下的class文件, 新建的子目录继续监听
+     */
+    private void rescan(ClassChangeSet pending) {
+        for (Map.Entry<Path, String> entry : new ArrayList<>(packagePaths.entrySet())) {
+            Path dir = entry.getKey();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                for (Path child : children) {
+                    String childName = child.getFileName().toString();
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)){
+                        if (!packagePaths.containsKey(child)){
+                            registerAll(child, childPath(entry.getValue(), childName), pending);
+                        }
+                    }else if (childName.endsWith(".class")){
+                        String className = className(entry.getValue(), childName);
+                        FileTime modifiedTime = lastModifiedTime(child);
+                        ClassFile old = classFiles.put(child, new ClassFile(className, modifiedTime));
+                        if (old == null){
+                            pending.added(className);
+                        }else if (!old.modifiedTime.equals(modifiedTime)){
+                            pending.modified(className);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                //目录已经删除, 其中的class在下面按删除处理
+            }
+        }
+        Iterator<Map.Entry<Path, ClassFile>> iterator = classFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, ClassFile> entry = iterator.next();
+            if (!Files.exists(entry.getKey())){
+                iterator.remove();
+                pending.removed(entry.getValue().className);
+            }
+        }
+    }
+
+    /**
+     * @param packagePath 包路径, 默认包为空字符串
+     */
+    private static String className(String packagePath, String fileName) {
+        return childPath(packagePath, fileName.substring(0, fileName.length() - 6)).replace("/", ".");
+    }
+
+    private static String childPath(String packagePath, String name) {
+        return packagePath.isEmpty() ? name : packagePath + "/" + name;
+    }
+
+    private static FileTime lastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            //文件已经被删除, 之后的删除事件或重新扫描会处理
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * 递归注册目录
+     * @param pending 不为null时, 目录下已存在的class视为新增
+     */
+    private void registerAll(Path start, String startPackagePath, ClassChangeSet pending) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                String relative = start.relativize(dir).toString().replace("\\", "/");
+                String packagePath = relative.isEmpty() ? startPackagePath : childPath(startPackagePath, relative);
+                WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                watchedDirs.put(key, dir);
+                packagePaths.put(dir, packagePath);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(".class")){
+                    String className = className(packagePaths.get(file.getParent()), fileName);
+                    classFiles.put(file, new ClassFile(className, attrs.lastModifiedTime()));
+                    if (pending != null){
+                        pending.added(className);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static class ClassFile {
+
+        private final String className;
+
+        private final FileTime modifiedTime;
+
+        ClassFile(String className, FileTime modifiedTime) {
+            this.className = className;
+            this.modifiedTime = modifiedTime;
+        }
+    }
+
+    /**
+     * 一批class变化, 同一个类在一批内的多次变化会合并
+     */
+    public static class ClassChangeSet {
+
+        private final Set<String> added = new LinkedHashSet<>();
+
+        private final Set<String> modified = new LinkedHashSet<>();
+
+        private final Set<String> removed = new LinkedHashSet<>();
+
+        void added(String className) {
+            //删除后重新创建视为修改
+            if (removed.remove(className)){
+                modified.add(className);
+            }else{
+                added.add(className);
+            }
+        }
+
+        void modified(String className) {
+            if (!added.contains(className)){
+                modified.add(className);
+            }
+        }
+
+        void removed(String className) {
+            //新增后又删除的类对外不可见
+            if (!added.remove(className)){
+                modified.remove(className);
+                removed.add(className);
+            }
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+        }
+
+        public Set<String> getAdded() {
+            return Collections.unmodifiableSet(added);
+        }
+
+        public Set<String> getModified() {
+            return Collections.unmodifiableSet(modified);
+        }
+
+        public Set<String> getRemoved() {
+            return Collections.unmodifiableSet(removed);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.yikolemon.ioc.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * jar条目缓存, 每个jar只读取一次central directory, 之后任意包前缀都从有序条目列表中二分查找.
+ * 缓存生命周期跟随持有者(一般为一次ResourceScanner扫描), 不做全局缓存
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class JarEntryCache {
+
+    //jar文件绝对路径 -> 排序后的文件条目名, 如 org/example/Hello.class
+    private final Map<String, List<String>> entryCache = new ConcurrentHashMap<>();
+
+    /**
+     * 查询jar中某个包(包括子包)下的全部文件条目
+     * @param jarFile jar文件
+     * @param packagePath 包路径, 如 org/example
+     * @return 条目名列表
+     */
+    public List<String> getEntries(File jarFile, String packagePath) {
+        List<String> entries = entryCache.computeIfAbsent(jarFile.getAbsolutePath(), JarEntryCache::readEntries);
+        if (packagePath.isEmpty()){
+            return entries;
+        }
+        String prefix = packagePath + "/";
+        //条目已排序, 同一前缀的条目连续分布
+        int from = lowerBound(entries, prefix);
+        int to = from;
+        while (to < entries.size() && entries.get(to).startsWith(prefix)) {
+            to++;
+        }
+        return entries.subList(from, to);
+    }
+
+    public void clear() {
+        entryCache.clear();
+    }
+
+    private static List<String> readEntries(String jarPath) {
+        try (JarFile jarFile = new JarFile(jarPath)) {
+            List<String> entries = new ArrayList<>(jarFile.size());
+            Enumeration<JarEntry> enumeration = jarFile.entries();
+            while (enumeration.hasMoreElements()) {
+                JarEntry entry = enumeration.nextElement();
+                if (!entry.isDirectory()){
+                    entries.add(entry.getName());
+                }
+            }
+            Collections.sort(entries);
+            return Collections.unmodifiableList(entries);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot read jar " + jarPath, e);
+        }
+    }
+
+    private static int lowerBound(List<String> entries, String key) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).compareTo(key) < 0){
+                low = mid + 1;
+            }else{
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -15,6 +15,9 @@ import java.nio.file.Path;
 @NoArgsConstructor
 public class Resource {
 
+    /**
+     * 文件路径, jar中的资源为null
+     */
     private Path path;
 
     private String name;
@@ -0,0 +1,38 @@
+package com.yikolemon.ioc.resource;
+
+/**
+ * 资源名过滤器, 在构造{@link Resource}之前执行, 被过滤掉的资源不会创建对象
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@FunctionalInterface
+public interface ResourceFilter {
+
+    ResourceFilter ALL = name -> true;
+
+    /**
+     * @param name 相对classpath根的资源名, 如 org/example/Hello.class
+     * @return 是否保留
+     */
+    boolean accept(String name);
+
+    default ResourceFilter and(ResourceFilter other) {
+        return name -> accept(name) && other.accept(name);
+    }
+
+    /**
+     * 按扩展名过滤, 如 .class
+     */
+    static ResourceFilter extension(String extension) {
+        return name -> name.endsWith(extension);
+    }
+
+    /**
+     * 只保留包(包括子包)下的资源
+     * @param packageName 包名, 如 org.example
+     */
+    static ResourceFilter underPackage(String packageName) {
+        String prefix = packageName.replace(".", "/") + "/";
+        return name -> name.startsWith(prefix);
+    }
+}
@@ -0,0 +1,16 @@
+package com.yikolemon.ioc.resource;
+
+/**
+ * 流式访问扫描到的资源
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+@FunctionalInterface
+public interface ResourceVisitor {
+
+    /**
+     * @param resource 通过过滤的资源
+     * @return false时终止扫描
+     */
+    boolean visit(Resource resource);
+}
@@ -0,0 +1,235 @@
+package com.yikolemon.ioc.resource;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 扫描结果的磁盘缓存, 按classpath根路径保存标注了注解的具体类及其元数据.
+ * 每个根路径都带有指纹(jar为大小和修改时间, 目录为按相对路径排序后全部文件的路径、大小和修改时间的SHA-256摘要),
+ * 启动时指纹一致的根路径直接复用缓存, 不一致的根路径重新扫描.
+ * 计算目录指纹时每次启动仍会遍历目录并读取每个文件的属性, 缓存节省的是打开每个class文件、读取内容并解析常量池的开销.
+ * 缓存只保存类上直接标注的注解名, 元注解可能定义在其他根路径中, 是否为候选类在每次启动时重新判断
+ * @author yikolemon
+ * @date 2026/10/17
+ **/
+public class ScanCache {
+
+    /**
+     * 缓存文件路径, 设置后开启扫描结果缓存
+     */
+    public static final String CACHE_FILE_PROPERTY = "yikolemon.scan.cache";
+
+    private static final Logger LOGGER = Logger.getLogger(ScanCache.class.getName());
+
+    private static final int VERSION = 2;
+
+    private final Path cacheFile;
+
+    //根路径 -> 缓存条目
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    //本次启动查询或写入过的根路径
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean modified = false;
+
+    private ScanCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * 读取缓存文件, 文件损坏或版本不一致时视为空缓存
+     * @return 缓存, 未开启时返回null
+     */
+    public static ScanCache load() {
+        String location = System.getProperty(CACHE_FILE_PROPERTY);
+        if (location == null || location.isEmpty()){
+            return null;
+        }
+        ScanCache scanCache = new ScanCache(Paths.get(location));
+        if (Files.isRegularFile(scanCache.cacheFile)){
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(scanCache.cacheFile)))) {
+                scanCache.read(in);
+            } catch (IOException e) {
+                scanCache.entries.clear();
+            }
+        }
+        return scanCache;
+    }
+
+    /**
+     * 查询根路径的缓存
+     * @param root 根路径
+     * @param fingerprint 当前指纹
+     * @return 标注了注解的具体类的元数据, 未缓存或指纹变化时返回null
+     */
+    public List<ClassMetadata> get(URI root, String fingerprint) {
+        touched.add(root.toString());
+        Entry entry = entries.get(root.toString());
+        if (entry == null || !entry.fingerprint.equals(fingerprint)){
+            return null;
+        }
+        return entry.candidates;
+    }
+
+    public void put(URI root, String fingerprint, List<ClassMetadata> candidates) {
+        touched.add(root.toString());
+        entries.put(root.toString(), new Entry(fingerprint, candidates));
+        modified = true;
+    }
+
+    /**
+     * 有变化时写回缓存文件, 先写临时文件再替换, 避免并发启动读到半个文件.
+     * 本次启动没有用到的根路径(删除的jar或目录、不再扫描的包)的条目不再写回, 因此不同应用不应共用一个缓存文件
+     */
+    public void save() {
+        if (entries.keySet().removeIf(root -> !touched.contains(root))){
+            modified = true;
+        }
+        if (!modified){
+            return;
+        }
+        Path tmp = null;
+        try {
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            tmp = Files.createTempFile(parent, cacheFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                write(out);
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+            modified = false;
+        } catch (IOException e) {
+            //缓存写入失败不影响启动, 下次启动重新扫描
+            LOGGER.log(Level.WARNING, "cannot write scan cache " + cacheFile, e);
+        } finally {
+            if (tmp != null){
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * 计算根路径指纹
+     * @param root {@link ClassResourceResolver#getRoots()}返回的根路径
+     */
+    public static String fingerprint(URI root) {
+        try {
+            if ("jar".equals(root.getScheme())){
+                File jarFile = ClassResourceResolver.jarUriToFile(root);
+                return "jar:" + jarFile.length() + ":" + jarFile.lastModified();
+            }
+            Path dir = Paths.get(root);
+            if (!Files.isDirectory(dir)){
+                return "missing";
+            }
+            //只读取文件属性, 不读取内容; 遍历顺序不固定, 按相对路径排序后计算摘要
+            Map<String, BasicFileAttributes> files = new TreeMap<>();
+            try (Stream<Path> walk = Files.walk(dir)) {
+                Iterator<Path> iterator = walk.iterator();
+                while (iterator.hasNext()) {
+                    Path path = iterator.next();
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()){
+                        files.put(dir.relativize(path).toString().replace("\\", "/"), attributes);
+                    }
+                }
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            for (Map.Entry<String, BasicFileAttributes> file : files.entrySet()) {
+                digest.update(file.getKey().getBytes(StandardCharsets.UTF_8));
+                buffer.clear();
+                buffer.putLong(file.getValue().size()).putLong(file.getValue().lastModifiedTime().toMillis());
+                digest.update(buffer.array());
+            }
+            return "dir:" + files.size() + ":" + String.format("%064x", new BigInteger(1, digest.digest()));
+        } catch (IOException | URISyntaxException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("cannot fingerprint " + root, e);
+        }
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        if (in.readInt() != VERSION){
+            return;
+        }
+        int rootCount = in.readInt();
+        for (int i = 0; i < rootCount; i++) {
+            String root = in.readUTF();
+            String fingerprint = in.readUTF();
+            int candidateCount = in.readInt();
+            List<ClassMetadata> candidates = new ArrayList<>(candidateCount);
+            for (int j = 0; j < candidateCount; j++) {
+                String className = in.readUTF();
+                String superClassName = in.readUTF();
+                List<String> interfaceNames = readStrings(in, new ArrayList<>());
+                int accessFlags = in.readInt();
+                Set<String> annotationNames = readStrings(in, new LinkedHashSet<>());
+                candidates.add(new ClassMetadata(className, superClassName.isEmpty() ? null : superClassName,
+                        interfaceNames, accessFlags, annotationNames));
+            }
+            entries.put(root, new Entry(fingerprint, candidates));
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeUTF(e.getValue().fingerprint);
+            out.writeInt(e.getValue().candidates.size());
+            for (ClassMetadata metadata : e.getValue().candidates) {
+                out.writeUTF(metadata.getClassName());
+                out.writeUTF(metadata.getSuperClassName() == null ? "" : metadata.getSuperClassName());
+                writeStrings(out, metadata.getInterfaceNames());
+                out.writeInt(metadata.getAccessFlags());
+                writeStrings(out, metadata.getAnnotationNames());
+            }
+        }
+    }
+
+    private static <C extends Collection<String>> C readStrings(DataInputStream in, C collection) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            collection.add(in.readUTF());
+        }
+        return collection;
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static class Entry {
+
+        private final String fingerprint;
+
+        private final List<ClassMetadata> candidates;
+
+        Entry(String fingerprint, List<ClassMetadata> candidates) {
+            this.fingerprint = fingerprint;
+            this.candidates = candidates;
+        }
+    }
+}
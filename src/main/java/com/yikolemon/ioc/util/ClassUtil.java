@@ -9,8 +9,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -19,6 +18,58 @@ import java.util.stream.Collectors;
  **/
 public class ClassUtil {
 
+    //同一个注解通过多条路径(直接标注或多个元注解)找到时的占位
+    private static final Object DUPLICATE = new Object();
+
+    /**
+     * 类上直接标注以及通过元注解(递归)间接标注的全部注解, 每个类只计算一次.
+     * 注解类型不存在于map中即为未标注, 命中和未命中都只需要一次查询
+     */
+    private static final ClassValue<Map<Class<? extends Annotation>, Object>> MERGED_ANNOTATIONS =
+            new ClassValue<Map<Class<? extends Annotation>, Object>>() {
+                @Override
+                protected Map<Class<? extends Annotation>, Object> computeValue(Class<?> type) {
+                    return mergeAnnotations(type);
+                }
+            };
+
+    private static final ClassValue<String> BEAN_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return resolveBeanName(type);
+        }
+    };
+
+    public static ClassLoader getDefaultClassLoader(){
+        //如果是WEB应用，拿到的Thread是Servlet提供的
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader != null){
+            return classLoader;
+        }
+        return ClassUtil.class.getClassLoader();
+    }
+
+    /**
+     * 类是否已经被classLoader或其父加载器加载, 不会触发加载.
+     * 无法判断时(ClassLoader.findLoadedClass不可访问)返回true
+     * @param classLoader 类加载器
+     * @param className 类名
+     */
+    public static boolean isLoaded(ClassLoader classLoader, String className){
+        try {
+            Method findLoadedClass = ClassLoader.class.getDeclaredMethod("findLoadedClass", String.class);
+            findLoadedClass.setAccessible(true);
+            for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+                if (findLoadedClass.invoke(loader, className) != null){
+                    return true;
+                }
+            }
+            return false;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return true;
+        }
+    }
+
     public static Method findAnnoMethod(Class<?> target, Class<? extends Annotation> annoClazz){
         Method[] methods = target.getMethods();
         List<Method> annoMethods = Arrays.stream(methods)
@@ -41,30 +92,50 @@ public class ClassUtil {
 
 
     /**
-     * 递归查询目标注解
+     * 递归查询目标注解, 结果来自按类缓存的合并注解视图
      * @param target    查询类class
      * @param annoClazz 注解class
      * @return          查询道德注解
      * @param <T>       注解泛型
      */
+    @SuppressWarnings("unchecked")
     public static <T extends Annotation> T getAnnotation(Class<?> target, Class<T> annoClazz){
-        T anno = target.getAnnotation(annoClazz);
+        Object anno = MERGED_ANNOTATIONS.get(target).get(annoClazz);
+        if (anno == DUPLICATE){
+            throw new RuntimeException("duplicate anno");
+        }
+        return (T) anno;
+    }
+
+    /**
+     * @return 类上直接和间接标注的注解, 不可修改
+     */
+    public static Collection<Annotation> getMergedAnnotations(Class<?> target){
+        List<Annotation> res = new ArrayList<>();
+        for (Object anno : MERGED_ANNOTATIONS.get(target).values()) {
+            if (anno != DUPLICATE){
+                res.add((Annotation) anno);
+            }
+        }
+        return Collections.unmodifiableList(res);
+    }
+
+    private static Map<Class<? extends Annotation>, Object> mergeAnnotations(Class<?> target){
         Annotation[] annotations = target.getAnnotations();
+        Map<Class<? extends Annotation>, Object> merged = new HashMap<>();
+        for (Annotation a : annotations) {
+            merged.put(a.annotationType(), a);
+        }
         for (Annotation a : annotations) {
             Class<? extends Annotation> itemAnnoType = a.annotationType();
-            String itemAnnoPackageName = itemAnnoType.getPackage().getName();
             //忽略jdk内部注解
-            if (itemAnnoPackageName.startsWith("java")){
+            if (itemAnnoType.getName().startsWith("java")){
                 continue;
             }
-            //非jdk注解进行
-            T itemFound = getAnnotation(itemAnnoType, annoClazz);
-            if (itemFound != null && anno != null){
-                throw new RuntimeException("duplicate anno");
-            }
-            anno = itemFound != null ? itemFound : anno;
+            //非jdk注解递归展开, 同一注解出现多次时标记为重复
+            MERGED_ANNOTATIONS.get(itemAnnoType).forEach((type, anno) -> merged.merge(type, anno, (x, y) -> DUPLICATE));
         }
-        return anno;
+        return merged;
     }
 
     public static <T extends Annotation> T getAnnotation(Parameter parameter, Class<T> annoClazz){
@@ -78,11 +149,17 @@ public class ClassUtil {
     }
 
     /**
-     *  /TODO 忽略嵌套@Component的情况
      * @param clazz 目标类
-     * @return bean名称
+     * @return bean名称, 每个类只解析一次
      */
     public static String getBeanName(Class<?> clazz){
+        return BEAN_NAMES.get(clazz);
+    }
+
+    /**
+     *  /TODO 忽略嵌套@Component的情况
+     */
+    private static String resolveBeanName(Class<?> clazz){
         Component anno = clazz.getAnnotation(Component.class);
         String name = null;
         if (anno != null){
@@ -0,0 +1,99 @@
+package com.yikolemon.ioc.context;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Bean创建依赖图的拓扑顺序和循环依赖检查
+ */
+public class BeanDependencyGraphTest extends TestCase {
+
+    private final Map<String, BeanDefinition> defs = new HashMap<>();
+
+    private final Map<String, List<String>> edges = new HashMap<>();
+
+    private BeanDefinition def(String name, String... dependencies) {
+        BeanDefinition def = BeanDefinition.builder().name(name).build();
+        defs.put(name, def);
+        edges.put(name, Arrays.asList(dependencies));
+        return def;
+    }
+
+    private BeanDependencyGraph build(BeanDefinition... definitions) {
+        return BeanDependencyGraph.build(Arrays.asList(definitions),
+                def -> edges.get(def.getName()).stream().map(defs::get).collect(Collectors.toList()));
+    }
+
+    private static List<String> names(List<BeanDefinition> definitions) {
+        return definitions.stream().map(BeanDefinition::getName).collect(Collectors.toList());
+    }
+
+    public void testDependenciesComeFirst() {
+        BeanDefinition a = def("a", "b", "c");
+        BeanDefinition b = def("b", "c");
+        BeanDefinition c = def("c");
+        BeanDefinition d = def("d");
+        assertEquals(Arrays.asList("c", "b", "a", "d"), names(build(a, b, c, d).getCreationOrder()));
+    }
+
+    public void testCycleMessage() {
+        BeanDefinition a = def("a", "b");
+        BeanDefinition b = def("b", "a");
+        try {
+            build(a, b);
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals("Circular dependency between beans: a -> b -> a", e.getMessage());
+        }
+    }
+
+    public void testCycleThroughBeanNotCreatedEagerly() {
+        //lazy不在创建范围内, 但a -> lazy -> a 依然是环
+        BeanDefinition a = def("a", "lazy");
+        def("lazy", "a");
+        try {
+            build(a);
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals("Circular dependency between beans: a -> lazy -> a", e.getMessage());
+        }
+    }
+
+    public void testWaitsThroughBeanNotCreatedEagerly() {
+        //a经由lazy依赖c, c必须先于a创建, lazy本身不单独创建
+        BeanDefinition a = def("a", "lazy");
+        def("lazy", "c");
+        BeanDefinition c = def("c");
+        assertEquals(Arrays.asList("c", "a"), names(build(a, c).getCreationOrder()));
+    }
+
+    public void testCreatedSingletonIsNotFollowed() {
+        BeanDefinition a = def("a", "created");
+        BeanDefinition created = def("created", "a");
+        created.setInstance(new Object());
+        assertEquals(Collections.singletonList("a"), names(build(a).getCreationOrder()));
+    }
+
+    public void testExecuteInDependencyOrder() {
+        BeanDefinition a = def("a", "lazy", "b");
+        BeanDefinition b = def("b", "c");
+        def("lazy", "c");
+        BeanDefinition c = def("c");
+        BeanDefinition d = def("d");
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            build(a, b, c, d).execute(executor, def -> executed.add(def.getName()));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c", "d")), new HashSet<>(executed));
+        assertEquals(4, executed.size());
+        assertTrue(executed.indexOf("c") < executed.indexOf("b"));
+        assertTrue(executed.indexOf("b") < executed.indexOf("a"));
+    }
+}
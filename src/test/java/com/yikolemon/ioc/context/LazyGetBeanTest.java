@@ -0,0 +1,71 @@
+package com.yikolemon.ioc.context;
+
+import com.yikolemon.ioc.context.lazy.FailingOnce;
+import com.yikolemon.ioc.context.lazy.LazyConfig;
+import com.yikolemon.ioc.context.lazy.LazyPeer;
+import com.yikolemon.ioc.context.lazy.LazyService;
+import com.yikolemon.ioc.properties.PropertyResolver;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 启动完成后并发getBean按需创建的Bean
+ */
+public class LazyGetBeanTest extends TestCase {
+
+    private static final int THREADS = 8;
+
+    public void testConcurrentGetBeanReturnsInjectedBean() throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(LazyConfig.class, new PropertyResolver());
+        assertEquals(0, LazyService.CREATED.get());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<LazyService>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                boolean creator = i == 0;
+                futures.add(executor.submit(() -> {
+                    if (!creator){
+                        //在创建线程注入期间到达
+                        LazyService.INJECTING.await();
+                    }
+                    //创建和注入期间持续读取, 覆盖无锁读取的路径
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                    LazyService service;
+                    do {
+                        service = context.getBean(LazyService.class);
+                        //读取到的实例必须已经完成注入
+                        assertNotNull(service.repository);
+                        assertNotNull(service.peer);
+                        assertEquals("lazy", service.name);
+                    } while (System.nanoTime() < deadline);
+                    return service;
+                }));
+            }
+            LazyService first = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<LazyService> future : futures) {
+                assertSame(first, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, LazyService.CREATED.get());
+            //字段循环依赖注入的是同一个实例
+            assertSame(first, first.peer.service);
+            assertSame(first.peer, context.getBean("lazyPeer", LazyPeer.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testFailedCreationCanBeRetried() throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(LazyConfig.class, new PropertyResolver());
+        try {
+            context.getBean(FailingOnce.class);
+            fail("first creation should fail");
+        } catch (RuntimeException e) {
+            assertFalse(e.getMessage().contains("repeat create error"));
+        }
+        assertNotNull(context.getBean(FailingOnce.class));
+    }
+}
@@ -0,0 +1,22 @@
+package com.yikolemon.ioc.context.lazy;
+
+import com.yikolemon.ioc.annotation.Component;
+import com.yikolemon.ioc.annotation.Lazy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 第一次创建失败
+ */
+@Lazy
+@Component
+public class FailingOnce {
+
+    public static final AtomicBoolean FAIL = new AtomicBoolean(true);
+
+    public FailingOnce() {
+        if (FAIL.getAndSet(false)){
+            throw new IllegalStateException("first creation fails");
+        }
+    }
+}
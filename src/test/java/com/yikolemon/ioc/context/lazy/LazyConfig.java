@@ -0,0 +1,9 @@
+package com.yikolemon.ioc.context.lazy;
+
+import com.yikolemon.ioc.annotation.ComponentScan;
+import com.yikolemon.ioc.annotation.Configuration;
+
+@ComponentScan
+@Configuration
+public class LazyConfig {
+}
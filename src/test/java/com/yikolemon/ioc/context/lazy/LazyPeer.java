@@ -0,0 +1,13 @@
+package com.yikolemon.ioc.context.lazy;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Component;
+import com.yikolemon.ioc.annotation.Lazy;
+
+@Lazy
+@Component
+public class LazyPeer {
+
+    @Autowired
+    public LazyService service;
+}
@@ -0,0 +1,42 @@
+package com.yikolemon.ioc.context.lazy;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Component;
+import com.yikolemon.ioc.annotation.Lazy;
+import com.yikolemon.ioc.annotation.Value;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 注入较慢的@Lazy Bean, 与LazyPeer互相依赖
+ */
+@Lazy
+@Component
+public class LazyService {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    //开始注入时打开
+    public static final CountDownLatch INJECTING = new CountDownLatch(1);
+
+    public Repository repository;
+
+    @Autowired
+    public LazyPeer peer;
+
+    @Value("${lazy.name:lazy}")
+    public String name;
+
+    public LazyService() {
+        CREATED.incrementAndGet();
+    }
+
+    @Autowired
+    public void setRepository(Repository repository) throws InterruptedException {
+        //拉长注入时间, 其他线程此时读取到的实例必须已经完成注入
+        INJECTING.countDown();
+        Thread.sleep(100);
+        this.repository = repository;
+    }
+}
@@ -0,0 +1,7 @@
+package com.yikolemon.ioc.context.lazy;
+
+import com.yikolemon.ioc.annotation.Component;
+
+@Component
+public class Repository {
+}
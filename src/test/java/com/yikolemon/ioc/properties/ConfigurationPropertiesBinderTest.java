@@ -0,0 +1,181 @@
+package com.yikolemon.ioc.properties;
+
+import com.yikolemon.ioc.annotation.Autowired;
+import com.yikolemon.ioc.annotation.Value;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class ConfigurationPropertiesBinderTest extends TestCase {
+
+    public static class Server {
+
+        private String host;
+
+        private int port;
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+    }
+
+    public static class AppProperties {
+
+        private String name;
+
+        private int maxConnections;
+
+        private Server server;
+
+        private List<Server> servers;
+
+        private List<Integer> ports;
+
+        private String[] tags;
+
+        private Map<String, Integer> limits;
+
+        private Map<String, Server> backends;
+
+        //字段的默认内容保留
+        private Map<String, String> labels = new HashMap<>(Collections.singletonMap("env", "dev"));
+    }
+
+    public static class InjectedProperties {
+
+        private String name;
+
+        @Autowired
+        private Server repository;
+
+        @Value("${app.mode:fixed}")
+        private String mode;
+
+        private Server backup;
+
+        @Autowired
+        public void setBackup(Server backup) {
+            this.backup = backup;
+        }
+    }
+
+    private static PropertyResolver resolver(Map<String, String> properties) {
+        return new PropertyResolver(Collections.singletonList(PropertySource.of("test", properties)));
+    }
+
+    private static AppProperties bind(Map<String, String> properties) throws ValueInjectException {
+        return resolver(properties).bind("app", new AppProperties());
+    }
+
+    public void testNested() throws ValueInjectException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("app.name", "demo");
+        properties.put("app.server.host", "localhost");
+        properties.put("app.server.port", "8080");
+        properties.put("other.name", "ignored");
+        AppProperties app = bind(properties);
+        assertEquals("demo", app.name);
+        assertEquals("localhost", app.server.host);
+        assertEquals(8080, app.server.port);
+    }
+
+    public void testListAndArray() throws ValueInjectException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("app.servers[1].host", "b");
+        properties.put("app.servers[0].host", "a");
+        properties.put("app.servers[0].port", "1");
+        properties.put("app.ports", "80,443");
+        properties.put("app.tags[0]", "x");
+        properties.put("app.tags[1]", "y");
+        AppProperties app = bind(properties);
+        assertEquals(2, app.servers.size());
+        assertEquals("a", app.servers.get(0).host);
+        assertEquals(1, app.servers.get(0).port);
+        assertEquals("b", app.servers.get(1).host);
+        assertEquals(Arrays.asList(80, 443), app.ports);
+        assertTrue(Arrays.equals(new String[]{"x", "y"}, app.tags));
+    }
+
+    public void testMap() throws ValueInjectException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("app.limits.read", "10");
+        properties.put("app.limits.a.b", "20");
+        properties.put("app.backends.primary.host", "p");
+        properties.put("app.labels.team", "core");
+        AppProperties app = bind(properties);
+        assertEquals(Integer.valueOf(10), app.limits.get("read"));
+        //值为简单类型时多级名称合并为一个key
+        assertEquals(Integer.valueOf(20), app.limits.get("a.b"));
+        assertEquals("p", app.backends.get("primary").host);
+        assertEquals("dev", app.labels.get("env"));
+        assertEquals("core", app.labels.get("team"));
+    }
+
+    public void testRelaxedNames() throws ValueInjectException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("app.max-connections", "5");
+        properties.put("APP.SERVER.HOST", "upper");
+        AppProperties app = bind(properties);
+        assertEquals(5, app.maxConnections);
+        assertEquals("upper", app.server.host);
+
+        properties.clear();
+        properties.put("app.max_connections", "6");
+        assertEquals(6, bind(properties).maxConnections);
+    }
+
+    public void testRelaxedNameCollisionPrefersHigherPrecedence() throws ValueInjectException {
+        PropertyResolver resolver = new PropertyResolver(Arrays.asList(
+                PropertySource.of("low", Collections.singletonMap("app.max-connections", "1")),
+                PropertySource.of("high", Collections.singletonMap("app.max_connections", "2"))));
+        assertEquals(2, resolver.bind("app", new AppProperties()).maxConnections);
+
+        //addProperties高于所有来源
+        Properties programmatic = new Properties();
+        programmatic.setProperty("app.maxconnections", "3");
+        resolver.addProperties(programmatic);
+        assertEquals(3, resolver.bind("app", new AppProperties()).maxConnections);
+    }
+
+    public void testRelaxedNameCollisionInOneSourceFails() throws ValueInjectException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("app.max-connections", "1");
+        properties.put("app.max_connections", "2");
+        properties.put("other.name", "x");
+        PropertyResolver resolver = resolver(properties);
+        try {
+            resolver.bind("app", new AppProperties());
+            fail("ambiguous");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("[app.max-connections, app.max_connections]"));
+        }
+        //其他前缀不受影响
+        assertEquals("x", resolver.bind("other", new AppProperties()).name);
+    }
+
+    public void testInjectedFieldsAreNotBound() throws ValueInjectException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("app.name", "demo");
+        properties.put("app.repository.host", "overwritten");
+        properties.put("app.mode", "bound");
+        properties.put("app.backup.port", "not-a-number");
+        InjectedProperties target = new InjectedProperties();
+        Server repository = new Server();
+        target.repository = repository;
+        target.mode = "injected";
+        resolver(properties).bind("app", target);
+        assertEquals("demo", target.name);
+        //容器注入的字段保持不变
+        assertSame(repository, target.repository);
+        assertNull(repository.host);
+        assertEquals("injected", target.mode);
+        assertNull(target.backup);
+    }
+
+    public void testPlaceholderInValue() throws ValueInjectException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("base", "svc");
+        properties.put("app.name", "${base}-1");
+        assertEquals("svc-1", bind(properties).name);
+    }
+}
@@ -0,0 +1,69 @@
+package com.yikolemon.ioc.properties;
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+public class PropertyResolverTest extends TestCase {
+
+    private PropertyResolver propertyResolver;
+
+    @Override
+    protected void setUp() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("server.port", "8080");
+        properties.put("big", "3000000000");
+        properties.put("ratio", "0.75");
+        properties.put("enabled", "true");
+        properties.put("port.ref", "${server.port}");
+        properties.put("a:b", "7");
+        propertyResolver = new PropertyResolver(Collections.singletonList(PropertySource.of("test", properties)));
+    }
+
+    public void testTypedGettersTakePropertyKeys() throws ValueInjectException {
+        assertEquals(8080, propertyResolver.getInt("server.port"));
+        assertEquals(3000000000L, propertyResolver.getLong("big"));
+        assertEquals(0.75D, propertyResolver.getDouble("ratio"));
+        assertTrue(propertyResolver.getBoolean("enabled"));
+        //配置值中的占位符依然解析
+        assertEquals(8080, propertyResolver.getInt("port.ref"));
+        //名称中的冒号不是默认值分隔符
+        assertEquals(7, propertyResolver.getInt("a:b"));
+    }
+
+    public void testMissingKey() {
+        try {
+            propertyResolver.getInt("server.missing");
+            fail("missing");
+        } catch (ValueInjectException e) {
+            assertEquals("server.missing", e.getFieldName());
+        }
+    }
+
+    public void testIntOutOfRange() throws ValueInjectException {
+        try {
+            propertyResolver.getInt("big");
+            fail("out of int range");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("out of int range"));
+        }
+    }
+
+    public void testExpressions() throws ValueInjectException {
+        assertEquals(Integer.valueOf(8080), propertyResolver.getProperty("${server.port:1}", Integer.class));
+        assertEquals(Integer.valueOf(1), propertyResolver.getProperty("${server.missing:1}", Integer.class));
+        assertEquals("http://localhost:8080", propertyResolver.getProperty("http://localhost:${server.port}", String.class));
+    }
+
+    public void testConvertedValueFollowsChanges() throws ValueInjectException {
+        assertEquals(8080, propertyResolver.getInt("server.port"));
+        Properties props = new Properties();
+        props.setProperty("server.port", "9090");
+        propertyResolver.addProperties(props);
+        assertEquals(9090, propertyResolver.getInt("server.port"));
+        assertEquals(9090, propertyResolver.getInt("port.ref"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.yikolemon.ioc.properties;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PropertyTemplateTest extends TestCase {
+
+    private final Map<String, String> properties = new HashMap<>();
+
+    private final PropertyTemplate.Cache expressions = new PropertyTemplate.Cache(PropertyTemplate::compileExpression);
+
+    private final PropertyTemplate.Cache values = new PropertyTemplate.Cache(PropertyTemplate::compile);
+
+    @Override
+    protected void setUp() {
+        properties.put("host", "localhost");
+        properties.put("port", "8080");
+        properties.put("which", "db");
+        properties.put("db", "mysql");
+        properties.put("url", "jdbc:${host}:${port}");
+        properties.put("c1", "${c2}");
+        properties.put("c2", "x${c1}");
+    }
+
+    public void testPlaceholderAndDefault() throws ValueInjectException {
+        assertEquals("localhost", resolve("${host}"));
+        assertEquals("8080", resolve("${port:9090}"));
+        assertEquals("9090", resolve("${missing:9090}"));
+        //默认值中的冒号属于默认值
+        assertEquals("a:b", resolve("${missing:a:b}"));
+    }
+
+    public void testDefaultEmpty() throws ValueInjectException {
+        assertEquals("", resolve("${missing:}"));
+        assertEquals("[]", resolve("[${missing:}]"));
+    }
+
+    public void testNested() throws ValueInjectException {
+        assertEquals("8080", resolve("${missing:${port}}"));
+        assertEquals("x", resolve("${missing:${other:x}}"));
+        //key中嵌套占位符
+        assertEquals("mysql", resolve("${${which}}"));
+        //配置值中的占位符
+        assertEquals("jdbc:localhost:8080", resolve("${url}"));
+    }
+
+    public void testComposite() throws ValueInjectException {
+        assertEquals("jdbc:localhost:8080/app", resolve("jdbc:${host}:${port}/app"));
+    }
+
+    public void testEscaped() throws ValueInjectException {
+        assertEquals("${host}", resolve("\\${host\\}"));
+        assertEquals("a}b", resolve("${missing:a\\}b}"));
+        assertEquals("a:b", resolve("${missing:a\\:b}"));
+        assertEquals("\\localhost", resolve("\\\\${host}"));
+        //不能转义的字符保留反斜杠
+        assertEquals("\\n", resolve("${missing:\\n}"));
+    }
+
+    public void testPlainKeyIsPropertyName() throws ValueInjectException {
+        assertEquals("localhost", resolve("host"));
+        assertNotExist("missing", "missing");
+    }
+
+    public void testMissing() {
+        assertNotExist("${missing}", "missing");
+        assertNotExist("${${missing}}", "missing");
+    }
+
+    public void testCircularReference() {
+        try {
+            resolve("${c1}");
+            fail("circular reference");
+        } catch (ValueInjectException e) {
+            assertEquals("circular placeholder reference", e.getMsg());
+            assertEquals("c1 -> c2 -> c1", e.getFieldName());
+        }
+    }
+
+    public void testMalformed() {
+        try {
+            resolve("${host");
+            fail("unclosed placeholder");
+        } catch (ValueInjectException e) {
+            assertEquals("unclosed placeholder", e.getMsg());
+        }
+        try {
+            resolve("${}");
+            fail("empty key");
+        } catch (ValueInjectException e) {
+            assertEquals("null parsing text", e.getMsg());
+        }
+    }
+
+    public void testCompiledOnce() throws ValueInjectException {
+        assertSame(expressions.get("${host}"), expressions.get("${host}"));
+        resolve("${url}");
+        PropertyTemplate url = values.get("jdbc:${host}:${port}");
+        assertSame(url, values.get("jdbc:${host}:${port}"));
+        values.clear();
+        assertNotSame(url, values.get("jdbc:${host}:${port}"));
+    }
+
+    private String resolve(String expression) throws ValueInjectException {
+        return expressions.get(expression).resolve(properties::get, values);
+    }
+
+    private void assertNotExist(String expression, String key) {
+        try {
+            resolve(expression);
+            fail("property not exist");
+        } catch (ValueInjectException e) {
+            assertEquals("property not exist", e.getMsg());
+            assertEquals(key, e.getFieldName());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.yikolemon.ioc.properties;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+public class TypeConverterTest extends TestCase {
+
+    enum Mode {
+        FAST_PATH, SLOW
+    }
+
+    //泛型类型从字段上读取
+    List<Integer> integerList;
+
+    Set<Mode> modeSet;
+
+    private final TypeConverter converter = new TypeConverter();
+
+    public void testPrimitivesAndWrappers() {
+        assertEquals(42, convert(" 42 ", int.class));
+        assertEquals(42L, convert("42", Long.class));
+        assertEquals(1.5D, convert("1.5", double.class));
+        assertEquals(Boolean.TRUE, convert("TRUE", boolean.class));
+        assertEquals('x', convert("x", char.class));
+        try {
+            convert("yes", boolean.class);
+            fail("invalid boolean");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid boolean value: yes", e.getMessage());
+        }
+        try {
+            convert("3000000000", int.class);
+            fail("out of int range");
+        } catch (NumberFormatException e) {
+            //expected
+        }
+    }
+
+    public void testDuration() {
+        assertEquals(Duration.ofSeconds(10), convert("PT10S", Duration.class));
+        assertEquals(Duration.ofMillis(500), convert("500", Duration.class));
+        assertEquals(Duration.ofMillis(500), convert("500ms", Duration.class));
+        assertEquals(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(7)), convert("7us", Duration.class));
+        assertEquals(Duration.ofNanos(3), convert("3ns", Duration.class));
+        assertEquals(Duration.ofSeconds(5), convert("5s", Duration.class));
+        assertEquals(Duration.ofMinutes(2), convert("2 m", Duration.class));
+        assertEquals(Duration.ofHours(1), convert("1H", Duration.class));
+        assertEquals(Duration.ofDays(3), convert("3d", Duration.class));
+        try {
+            convert("3w", Duration.class);
+            fail("unknown unit");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown duration unit: 3w", e.getMessage());
+        }
+    }
+
+    public void testDataSize() {
+        assertEquals(DataSize.ofBytes(512), convert("512", DataSize.class));
+        assertEquals(DataSize.ofBytes(512), convert("512B", DataSize.class));
+        assertEquals(64L, ((DataSize) convert("64KB", DataSize.class)).toKilobytes());
+        assertEquals(10L << 20, ((DataSize) convert("10mb", DataSize.class)).toBytes());
+        assertEquals(2L, ((DataSize) convert(" 2 GB ", DataSize.class)).toGigabytes());
+        assertEquals(2L << 40, ((DataSize) convert("2TB", DataSize.class)).toBytes());
+        try {
+            convert("9999999TB", DataSize.class);
+            fail("overflow");
+        } catch (ArithmeticException e) {
+            //expected
+        }
+    }
+
+    public void testRelaxedEnum() {
+        assertEquals(Mode.FAST_PATH, convert("FAST_PATH", Mode.class));
+        assertEquals(Mode.FAST_PATH, convert("fast-path", Mode.class));
+        assertEquals(Mode.SLOW, convert(" slow ", Mode.class));
+        try {
+            convert("medium", Mode.class);
+            fail("no enum constant");
+        } catch (IllegalArgumentException e) {
+            assertEquals("No enum constant " + Mode.class.getName() + ".medium", e.getMessage());
+        }
+    }
+
+    public void testArrays() {
+        assertTrue(Arrays.equals(new int[]{1, 2, 3}, (int[]) convert("1, 2,3", int[].class)));
+        assertTrue(Arrays.equals(new String[]{"a", "b"}, (String[]) convert("a,b", String[].class)));
+        assertEquals(0, ((long[]) convert(" ", long[].class)).length);
+        //每次转换得到新的数组
+        assertNotSame(convert("1", int[].class), convert("1", int[].class));
+    }
+
+    public void testCollections() throws NoSuchFieldException {
+        Type integerListType = getClass().getDeclaredField("integerList").getGenericType();
+        assertEquals(Arrays.asList(1, 2), convert("1,2", integerListType));
+        Type modeSetType = getClass().getDeclaredField("modeSet").getGenericType();
+        assertEquals(new LinkedHashSet<>(Arrays.asList(Mode.SLOW, Mode.FAST_PATH)), convert("slow,fast-path,SLOW", modeSetType));
+        //没有泛型参数时按String处理
+        assertEquals(Arrays.asList("x", "y"), convert("x, y", List.class));
+        assertEquals(Collections.emptyList(), convert("", List.class));
+        try {
+            ((List<?>) convert("1", integerListType)).clear();
+            fail("unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            //expected
+        }
+    }
+
+    public void testRegisteredConverterAppliesToElements() {
+        assertEquals(Mode.SLOW, convert("slow", Mode.class));
+        converter.register(Mode.class, s -> Mode.FAST_PATH);
+        assertEquals(Mode.FAST_PATH, convert("slow", Mode.class));
+        assertEquals(Mode.FAST_PATH, ((Mode[]) convert("slow", Mode[].class))[0]);
+    }
+
+    public void testUnsupportedType() {
+        try {
+            convert("x", Object.class);
+            fail("unsupported");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unsupported value type: java.lang.Object", e.getMessage());
+        }
+    }
+
+    private Object convert(String value, Type type) {
+        return converter.get(type).apply(value);
+    }
+}
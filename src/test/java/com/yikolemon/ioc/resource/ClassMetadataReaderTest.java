@@ -0,0 +1,130 @@
+package com.yikolemon.ioc.resource;
+
+import com.yikolemon.ioc.annotation.Component;
+import com.yikolemon.ioc.annotation.Configuration;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.lang.annotation.*;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 解析测试类自身编译出的class文件
+ */
+public class ClassMetadataReaderTest extends TestCase {
+
+    private static final String COMPONENT = Component.class.getName();
+
+    private final ClassMetadataReader reader = new ClassMetadataReader(getClass().getClassLoader());
+
+    interface Api {
+    }
+
+    @Component
+    static abstract class AbstractService implements Api {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE})
+    @Documented
+    @Component
+    @interface Service {
+
+        String value() default "";
+    }
+
+    @Service("meta")
+    static class MetaAnnotated extends AbstractService implements Serializable, Api {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * 常量池中的Long和Double各占两个槽位, 之后的常量索引需要正确
+     */
+    @Configuration
+    static class WideConstants {
+
+        static final long LONG = 1234567890123L;
+
+        static final double DOUBLE = 3.14159D;
+
+        long sum(long a, double b) {
+            return a + (long) b + 9876543210L + (long) 2.71828D;
+        }
+    }
+
+    public void testInterface() throws IOException {
+        ClassMetadata metadata = read(Api.class);
+        assertEquals(Api.class.getName(), metadata.getClassName());
+        assertEquals(Object.class.getName(), metadata.getSuperClassName());
+        assertTrue(metadata.isInterface());
+        assertFalse(metadata.isAnnotation());
+        assertFalse(metadata.isConcrete());
+        assertTrue(metadata.getAnnotationNames().isEmpty());
+    }
+
+    public void testAbstractClass() throws IOException {
+        ClassMetadata metadata = read(AbstractService.class);
+        assertTrue(metadata.isAbstract());
+        assertFalse(metadata.isInterface());
+        assertEquals(Collections.singletonList(Api.class.getName()), metadata.getInterfaceNames());
+        assertEquals(Collections.singleton(COMPONENT), metadata.getAnnotationNames());
+        //标注了@Component但不能实例化
+        assertFalse(reader.isCandidate(metadata, COMPONENT));
+    }
+
+    public void testAnnotation() throws IOException {
+        ClassMetadata metadata = read(Service.class);
+        assertTrue(metadata.isAnnotation());
+        assertTrue(metadata.isInterface());
+        assertEquals(Collections.singletonList(Annotation.class.getName()), metadata.getInterfaceNames());
+        //枚举和数组类型的注解属性被跳过, RetentionPolicy.CLASS的注解不在其中
+        assertEquals(Arrays.asList(Retention.class.getName(), Target.class.getName(), Documented.class.getName(), COMPONENT),
+                Arrays.asList(metadata.getAnnotationNames().toArray()));
+        assertFalse(reader.isCandidate(metadata, COMPONENT));
+    }
+
+    public void testMetaAnnotatedComponent() throws IOException {
+        ClassMetadata metadata = read(MetaAnnotated.class);
+        assertEquals(AbstractService.class.getName(), metadata.getSuperClassName());
+        assertEquals(Arrays.asList(Serializable.class.getName(), Api.class.getName()), metadata.getInterfaceNames());
+        assertEquals(Collections.singleton(Service.class.getName()), metadata.getAnnotationNames());
+        assertTrue(metadata.isConcrete());
+        assertTrue(reader.hasAnnotation(metadata, COMPONENT));
+        assertTrue(reader.isCandidate(MetaAnnotated.class.getName(), COMPONENT));
+        assertTrue(reader.getMetaAnnotationNames(Service.class.getName()).contains(COMPONENT));
+    }
+
+    public void testLongAndDoubleConstants() throws IOException {
+        ClassMetadata metadata = read(WideConstants.class);
+        assertEquals(WideConstants.class.getName(), metadata.getClassName());
+        assertEquals(Object.class.getName(), metadata.getSuperClassName());
+        assertEquals(Collections.singleton(Configuration.class.getName()), metadata.getAnnotationNames());
+        //@Configuration上标注了@Component
+        assertTrue(reader.isCandidate(metadata, COMPONENT));
+    }
+
+    public void testMissingClassAndInvalidFile() {
+        assertNull(reader.getMetadata("com.yikolemon.NotExist"));
+        assertFalse(reader.isCandidate("com.yikolemon.NotExist", COMPONENT));
+        try {
+            ClassMetadataReader.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+            fail("not a class file");
+        } catch (IOException e) {
+            assertEquals("not a class file", e.getMessage());
+        }
+    }
+
+    private static ClassMetadata read(Class<?> clazz) throws IOException {
+        String resourceName = clazz.getName().replace('.', '/') + ".class";
+        try (InputStream in = clazz.getClassLoader().getResourceAsStream(resourceName)) {
+            assertNotNull(resourceName, in);
+            return ClassMetadataReader.read(in);
+        }
+    }
+}